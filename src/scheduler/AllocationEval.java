@@ -0,0 +1,220 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.*;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Heap bytes allocated per operation by every Runqueue implementation, with a budget check.
+ * <p>
+ * The queue is filled with size processes, then every round dequeues one process and enqueues a new one,
+ * so the size stays the same and the arrays of the implementations do not grow during the measurement.
+ * The labels are created before the measurement, so only the allocations of the queue itself are counted.
+ * <p>
+ * The test fails when the mean bytes per call of an operation go over its budget. The default budgets are
+ * one node for an enqueue and nothing (under {@value #ALLOCATION_FREE} byte per call) for the other
+ * operations, except where the implementation needs more by design. A budget can be changed with {@code -Dallocation.budget.<implementation>.<operation>=bytes},
+ * e.g. {@code -Dallocation.budget.HeapRQ.enqueue=0}.
+ * The bytes per call are also written to {@code <timestamp>-allocation.csv}.
+ * This evaluation program requires the JUnit 5.4 and a HotSpot JVM
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AllocationEval {
+    private static final DateFormat SDF = new SimpleDateFormat("yyyy-MM-dd HH-mm");
+
+    private static final int[] TEST_SIZES = {1000, 10000};
+
+    /**
+     * Rounds of the warmup and of the measurement
+     */
+    private static final int ROUNDS = 5000;
+
+    /**
+     * Budget of an allocation-free operation. A path which allocates on every call costs at least 16 bytes
+     * per call, a mean under one byte only comes from one-off JVM events such as a deoptimization
+     */
+    private static final double ALLOCATION_FREE = 1.0;
+
+    private static final String[] OPERATIONS = {
+            "enqueue", "dequeue", "findProcess", "removeProcess", "precedingProcessTime", "succeedingProcessTime",
+            "updateVruntime"
+    };
+
+    /**
+     * Key = Implementation Name + Operation
+     * Value = bytes per call allowed
+     */
+    private static final Map<String, Double> DEFAULT_BUDGETS = new HashMap<>();
+
+    static {
+        //One node per process
+        for (String name : new String[]{"OrderedArrayRQ", "OrderedLinkedListRQ", "BinarySearchTreeRQ",
+                "BalancedTreeRQ", "HeapRQ", "BucketRQ", "RadixHeapRQ"}) {
+            DEFAULT_BUDGETS.put(name + ".enqueue", 64.0);
+        }
+        //The node holds one link and one span and sum per lane
+        DEFAULT_BUDGETS.put("SkipListRQ.enqueue", 192.0);
+        //The skip list set allocates its index nodes and the headSet/tailSet views and iterators
+        DEFAULT_BUDGETS.put("ConcurrentRunqueue.enqueue", 192.0);
+        DEFAULT_BUDGETS.put("ConcurrentRunqueue.dequeue", 96.0);
+        DEFAULT_BUDGETS.put("ConcurrentRunqueue.removeProcess", 96.0);
+        DEFAULT_BUDGETS.put("ConcurrentRunqueue.precedingProcessTime", 160.0);
+        DEFAULT_BUDGETS.put("ConcurrentRunqueue.succeedingProcessTime", 160.0);
+        //The skip list set keys are immutable, an update allocates a new key and its index nodes
+        DEFAULT_BUDGETS.put("ConcurrentRunqueue.updateVruntime", 192.0);
+        //An update appends to another bucket, whose ticket tree is doubled now and then while the bucket grows
+        DEFAULT_BUDGETS.put("BucketRQ.updateVruntime", 16.0);
+        //The unbalanced tree has no parent links, its in-order scan keeps the pending ancestors in a stack
+        DEFAULT_BUDGETS.put("BinarySearchTreeRQ.precedingProcessTime", 160.0);
+        DEFAULT_BUDGETS.put("BinarySearchTreeRQ.succeedingProcessTime", 160.0);
+        //CompactTreeRQ and OffHeapRQ recycle their slots, every operation must stay allocation-free
+    }
+
+    /**
+     * Key = Implementation Name + Operation + Size
+     * Value = bytes per call measured
+     */
+    private static Map<String, Double> bytesPerCallMap;
+
+    @BeforeAll
+    static void beforeAll() {
+        Assumptions.assumeTrue(AllocationProfiler.isSupported(), "No thread allocation counters on this JVM");
+        bytesPerCallMap = new ConcurrentHashMap<>();
+    }
+
+    @AfterAll
+    static void afterAll() throws IOException {
+        String fileName = SDF.format(new Date()) + "-allocation.csv";
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
+            out.println("implementation,operation,size,bytesPerCall,budget");
+            for (String name : implementationNames()) {
+                for (String operation : OPERATIONS) {
+                    for (int size : TEST_SIZES) {
+                        Double bytes = bytesPerCallMap.get(name + "." + operation + "." + size);
+                        if (bytes != null) {
+                            out.printf(Locale.ROOT, "%s,%s,%d,%.1f,%.1f%n", name, operation, size, bytes,
+                                    budget(name, operation));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Order(1)
+    @DisplayName("Bytes allocated per operation stay within the budget")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}, Size = {1}")
+    @MethodSource("sizeProvider")
+    void allocation(String name, int size) {
+        String[] labels = new String[size + 2 * ROUNDS];
+        Random random = new Random(size);
+        int[] vts = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = "P" + i;
+            vts[i] = 1 + random.nextInt(100);
+        }
+        Runqueue queue = RunqueueFactory.create(RunqueueFactory.NAMES[implementationNames().indexOf(name)]);
+        for (int i = 0; i < size; i++) {
+            queue.enqueue(labels[i], vts[i]);
+        }
+        //The first pass warms up the code and the lazily allocated structures, the second one is measured
+        long[] bytes = new long[OPERATIONS.length];
+        churn(queue, labels, vts, size, bytes);
+        Arrays.fill(bytes, 0L);
+        churn(queue, labels, vts, size + ROUNDS, bytes);
+
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            double bytesPerCall = (double) bytes[i] / ROUNDS;
+            bytesPerCallMap.put(name + "." + OPERATIONS[i] + "." + size, bytesPerCall);
+            System.out.printf("Queue Type: %s, Size: %d, %s: %.1f bytes per call\n", name, size, OPERATIONS[i],
+                    bytesPerCall);
+            double budget = budget(name, OPERATIONS[i]);
+            assertTrue(bytesPerCall <= budget, name + "." + OPERATIONS[i] + " allocates " + bytesPerCall
+                    + " bytes per call, over its budget of " + budget);
+        }
+    }
+
+    /**
+     * Every round enqueues labels[next], dequeues one process, then looks up, sums around, updates and
+     * removes the process enqueued the round before and enqueues it again, so the queue size does not change
+     */
+    private static void churn(Runqueue queue, String[] labels, int[] vts, int next, long[] bytes) {
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = AllocationProfiler.allocatedBytes();
+            queue.enqueue(labels[next], vts[next]);
+            bytes[0] += AllocationProfiler.since(before);
+
+            before = AllocationProfiler.allocatedBytes();
+            queue.dequeue();
+            bytes[1] += AllocationProfiler.since(before);
+
+            //The process enqueued last round is still queued unless it was dequeued just now
+            String label = labels[next - 1];
+            before = AllocationProfiler.allocatedBytes();
+            queue.findProcess(label);
+            bytes[2] += AllocationProfiler.since(before);
+
+            before = AllocationProfiler.allocatedBytes();
+            queue.precedingProcessTime(label);
+            bytes[4] += AllocationProfiler.since(before);
+
+            before = AllocationProfiler.allocatedBytes();
+            queue.succeedingProcessTime(label);
+            bytes[5] += AllocationProfiler.since(before);
+
+            //The remove and enqueue below put the process back with its own vt
+            before = AllocationProfiler.allocatedBytes();
+            queue.updateVruntime(label, vts[next]);
+            bytes[6] += AllocationProfiler.since(before);
+
+            before = AllocationProfiler.allocatedBytes();
+            boolean removed = queue.removeProcess(label);
+            bytes[3] += AllocationProfiler.since(before);
+            if (removed) {
+                queue.enqueue(labels[next - 1], vts[next - 1]);
+            }
+            next++;
+        }
+    }
+
+    private static double budget(String name, String operation) {
+        String key = name + "." + operation;
+        String property = System.getProperty("allocation.budget." + key);
+        if (property != null) {
+            return Double.parseDouble(property);
+        }
+        return DEFAULT_BUDGETS.getOrDefault(key, ALLOCATION_FREE);
+    }
+
+    /**
+     * Class names of the implementations, in the order of RunqueueFactory.NAMES
+     */
+    private static List<String> implementationNames() {
+        List<String> names = new ArrayList<>();
+        for (String shortName : RunqueueFactory.NAMES) {
+            names.add(RunqueueFactory.create(shortName).getClass().getSimpleName());
+        }
+        return names;
+    }
+
+    private static Stream<Arguments> sizeProvider() {
+        List<Arguments> arguments = new ArrayList<>();
+        for (String name : implementationNames()) {
+            for (int size : TEST_SIZES) {
+                arguments.add(Arguments.of(name, size));
+            }
+        }
+        return arguments.stream();
+    }
+}
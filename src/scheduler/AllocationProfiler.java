@@ -0,0 +1,96 @@
+package scheduler;
+
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * Bytes allocated on the heap by the current thread, from the HotSpot thread allocation counters.
+ * <p>
+ * The counter is exact up to the TLAB refills, it is not sampled, so a path which allocates nothing reads
+ * 0 bytes. The cost of reading the counter itself is measured once and subtracted, see {@link #measure}.
+ * On a JVM without the counters {@link #isSupported()} is false and every measurement is -1.
+ */
+public final class AllocationProfiler {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    /**
+     * Bytes allocated by one read of the counter, which every measurement includes once
+     */
+    private static final long OVERHEAD = calibrate();
+
+    private AllocationProfiler() {
+    }
+
+    /**
+     * @return True if the JVM can count the allocated bytes of a thread.
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * @return Total bytes allocated by the current thread so far, or -1 if not supported.
+     */
+    public static long allocatedBytes() {
+        return THREADS == null ? -1L : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Run the operation and count what it allocates.
+     *
+     * @param operation Code to measure, it should not print or log.
+     *
+     * @return Bytes allocated by the operation on the current thread, or -1 if not supported.
+     */
+    public static long measure(Runnable operation) {
+        if (THREADS == null) {
+            return -1L;
+        }
+        long before = allocatedBytes();
+        operation.run();
+        return Math.max(0L, allocatedBytes() - before - OVERHEAD);
+    }
+
+    /**
+     * @return Bytes allocated by the current thread since the given counter value, minus the overhead
+     * of reading the counter, or -1 if not supported.
+     */
+    public static long since(long before) {
+        if (THREADS == null) {
+            return -1L;
+        }
+        return Math.max(0L, allocatedBytes() - before - OVERHEAD);
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException | LinkageError e) {
+            //Not a HotSpot JVM, or not allowed to turn the counters on
+        }
+        return null;
+    }
+
+    /**
+     * The smallest of many back-to-back reads, once the read path is warm
+     */
+    private static long calibrate() {
+        if (THREADS == null) {
+            return 0L;
+        }
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long before = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - before);
+        }
+        return overhead;
+    }
+
+} // end of class AllocationProfiler
@@ -0,0 +1,500 @@
+package scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the Runqueue interface using a self-balancing AVL Tree.
+ * <p>
+ * Every node keeps the size and the vt sum of its subtree, so the preceding and succeeding
+ * process time can be answered with a single root-to-node descent instead of walking whole subtrees.
+ * Processes with the same vt are ordered by an insertion sequence number which keeps the FIFO order.
+ */
+public class BalancedTreeRQ implements Runqueue {
+    private ProcNode root;
+
+    /**
+     * Label to node lookup, so that the key (vt, seq) of a process can be found without a traversal
+     */
+    private final LabelIndex<ProcNode> labelIndex;
+
+    /**
+     * Monotonically increasing insertion counter used to break ties between equal vt
+     */
+    private long nextSeq;
+
+    /**
+     * Constructs empty queue
+     */
+    public BalancedTreeRQ() {
+        root = null;
+        labelIndex = new LabelIndex<>();
+        nextSeq = 0L;
+    }  // end of BalancedTreeRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (labelIndex.containsKey(procLabel)) {
+            return;
+        }
+        ProcNode procNode = new ProcNode(procLabel, vt, nextSeq++);
+        labelIndex.put(procLabel, procNode);
+        root = insert(root, procNode);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        if (root == null) {
+            return "";
+        }
+        ProcNode min = findMin(root);
+        root = removeMin(root);
+        labelIndex.remove(min.procLabel);
+        return min.procLabel;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        ProcNode node = labelIndex.remove(procLabel);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node);
+        return true;
+    } // end of removeProcess()
+
+
+    /**
+     * Remove the node and insert it again with the new vt and a new seq, both in O(log n).
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        ProcNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node);
+        node.leftChild = null;
+        node.rightChild = null;
+        node.vt = vt;
+        node.seq = nextSeq++;
+        node.height = 1;
+        node.size = 1;
+        node.sum = vt;
+        root = insert(root, node);
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        ProcNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        return (int) precedingSum(node);
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        ProcNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        return (int) (root.sum - precedingSum(node) - node.vt);
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        TreeCursor cursor = new TreeCursor(height(root));
+        cursor.pushLeftSpine(root);
+        return cursor;
+    } // end of cursor()
+
+
+    /**
+     * Descend from the root to the process, keeping the ancestors it is on the left of, which are the
+     * processes that follow it.
+     */
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        ProcNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return ProcessCursor.EMPTY;
+        }
+        TreeCursor cursor = new TreeCursor(height(root));
+        ProcNode current = root;
+        while (current != node) {
+            Probe.visit();
+            if (compare(node, current) < 0) {
+                cursor.push(current);
+                current = current.leftChild;
+            } else {
+                current = current.rightChild;
+            }
+        }
+        cursor.push(node);
+        return cursor;
+    } // end of cursor()
+
+
+    /**
+     * Descend from the root towards the first process with a vt of at least the given vt, keeping the
+     * ancestors the search goes left of, in O(log n).
+     */
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        TreeCursor cursor = new TreeCursor(height(root));
+        ProcNode current = root;
+        while (current != null) {
+            Probe.compare();
+            Probe.visit();
+            if (current.vt >= vt) {
+                cursor.push(current);
+                current = current.leftChild;
+            } else {
+                current = current.rightChild;
+            }
+        }
+        return cursor;
+    } // end of cursorFromVruntime()
+
+    /**
+     * Sort the new processes once. A batch at least as large as the tree is merged with the tree in order
+     * and the tree is rebuilt perfectly balanced in O(n), a smaller batch is inserted one by one.
+     */
+    @Override
+    public void enqueueAll(String[] procLabels, int[] vts, int length) {
+        if (length < 0 || length > procLabels.length || length > vts.length) {
+            throw new IllegalArgumentException("length must be within the length of procLabels and vts.");
+        }
+        labelIndex.ensureCapacity(labelIndex.size() + length);
+        //Skip the labels already in the tree or earlier in the batch, like repeated enqueue would
+        ProcNode[] batch = new ProcNode[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!labelIndex.containsKey(procLabels[i])) {
+                ProcNode procNode = new ProcNode(procLabels[i], vts[i], nextSeq++);
+                labelIndex.put(procLabels[i], procNode);
+                batch[count++] = procNode;
+            }
+        }
+        int size = size(root);
+        if (count < size) {
+            for (int i = 0; i < count; i++) {
+                root = insert(root, batch[i]);
+            }
+            return;
+        }
+        //The sort is stable, so the batch keeps its array order among the same vt
+        Arrays.sort(batch, 0, count, (a, b) -> Integer.compare(a.vt, b.vt));
+        ProcNode[] existing = new ProcNode[size];
+        collect(root, existing, 0);
+        //Every process of the tree was enqueued before the batch, so it goes first among the same vt
+        ProcNode[] merged = new ProcNode[size + count];
+        int read = 0;
+        int next = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (next == count || (read < size && existing[read].vt <= batch[next].vt)) {
+                merged[i] = existing[read++];
+            } else {
+                merged[i] = batch[next++];
+            }
+        }
+        root = build(merged, 0, merged.length);
+    } // end of enqueueAll()
+
+
+    /**
+     * Dequeue the processes one by one, unless at least half of the tree goes, then the rest of the tree is
+     * rebuilt from its in-order sequence in O(n).
+     */
+    @Override
+    public String[] dequeueBatch(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be non-negative.");
+        }
+        int size = size(root);
+        String[] labels = new String[Math.min(n, size)];
+        if (labels.length < (size + 1) >> 1) {
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = dequeue();
+            }
+            return labels;
+        }
+        ProcNode[] nodes = new ProcNode[size];
+        collect(root, nodes, 0);
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = nodes[i].procLabel;
+            labelIndex.remove(labels[i]);
+        }
+        root = build(nodes, labels.length, size);
+        return labels;
+    } // end of dequeueBatch()
+
+    /**
+     * @return The number of processes in the queue.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Sum the vt of all the processes ordered before the target by descending from the root.
+     */
+    private long precedingSum(ProcNode target) {
+        long sum = 0L;
+        ProcNode current = root;
+        while (current != null) {
+            Probe.visit();
+            int cmp = compare(target, current);
+            if (cmp < 0) {
+                current = current.leftChild;
+            } else if (cmp > 0) {
+                sum += sum(current.leftChild) + current.vt;
+                current = current.rightChild;
+            } else {
+                return sum + sum(current.leftChild);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Store the subtree in order into the array from the given index, returns the index after the last one
+     */
+    private static int collect(ProcNode node, ProcNode[] nodes, int index) {
+        if (node == null) {
+            return index;
+        }
+        index = collect(node.leftChild, nodes, index);
+        nodes[index++] = node;
+        return collect(node.rightChild, nodes, index);
+    }
+
+    /**
+     * Build a perfectly balanced subtree from the sorted nodes in [from, to)
+     */
+    private static ProcNode build(ProcNode[] nodes, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        ProcNode node = nodes[mid];
+        node.leftChild = build(nodes, from, mid);
+        node.rightChild = build(nodes, mid + 1, to);
+        update(node);
+        return node;
+    }
+
+    private ProcNode insert(ProcNode node, ProcNode procNode) {
+        if (node == null) {
+            return procNode;
+        }
+        Probe.visit();
+        if (compare(procNode, node) < 0) {
+            node.leftChild = insert(node.leftChild, procNode);
+        } else {
+            node.rightChild = insert(node.rightChild, procNode);
+        }
+        return rebalance(node);
+    }
+
+    private ProcNode remove(ProcNode node, ProcNode target) {
+        if (node == null) {
+            return null;
+        }
+        Probe.visit();
+        int cmp = compare(target, node);
+        if (cmp < 0) {
+            node.leftChild = remove(node.leftChild, target);
+        } else if (cmp > 0) {
+            node.rightChild = remove(node.rightChild, target);
+        } else {
+            //Case 1 & 2: at most one child, the child takes the place of the node
+            if (node.leftChild == null) {
+                return node.rightChild;
+            }
+            if (node.rightChild == null) {
+                return node.leftChild;
+            }
+            //Case 3: two children, the successor node takes the place of the node
+            ProcNode successor = findMin(node.rightChild);
+            successor.rightChild = removeMin(node.rightChild);
+            successor.leftChild = node.leftChild;
+            node.leftChild = null;
+            node.rightChild = null;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private ProcNode removeMin(ProcNode node) {
+        if (node.leftChild == null) {
+            ProcNode right = node.rightChild;
+            node.rightChild = null;
+            return right;
+        }
+        node.leftChild = removeMin(node.leftChild);
+        return rebalance(node);
+    }
+
+    private ProcNode findMin(ProcNode start) {
+        ProcNode current = start;
+        while (current.leftChild != null) {
+            Probe.visit();
+            current = current.leftChild;
+        }
+        return current;
+    }
+
+    private ProcNode rebalance(ProcNode node) {
+        update(node);
+        int balance = height(node.leftChild) - height(node.rightChild);
+        if (balance > 1) {
+            //Left-Right case is reduced to Left-Left case first
+            if (height(node.leftChild.leftChild) < height(node.leftChild.rightChild)) {
+                node.leftChild = rotateLeft(node.leftChild);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            //Right-Left case is reduced to Right-Right case first
+            if (height(node.rightChild.rightChild) < height(node.rightChild.leftChild)) {
+                node.rightChild = rotateRight(node.rightChild);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private ProcNode rotateRight(ProcNode node) {
+        ProcNode pivot = node.leftChild;
+        node.leftChild = pivot.rightChild;
+        pivot.rightChild = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private ProcNode rotateLeft(ProcNode node) {
+        ProcNode pivot = node.rightChild;
+        node.rightChild = pivot.leftChild;
+        pivot.leftChild = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Recompute the augmented fields of the node from its children
+     */
+    private static void update(ProcNode node) {
+        node.height = 1 + Math.max(height(node.leftChild), height(node.rightChild));
+        node.size = 1 + size(node.leftChild) + size(node.rightChild);
+        node.sum = node.vt + sum(node.leftChild) + sum(node.rightChild);
+    }
+
+    private static int height(ProcNode node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(ProcNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static long sum(ProcNode node) {
+        return node == null ? 0L : node.sum;
+    }
+
+    /**
+     * Order by vt first, then by the insertion sequence to keep FIFO among the same vt
+     */
+    private static int compare(ProcNode a, ProcNode b) {
+        Probe.compare();
+        if (a.vt != b.vt) {
+            return a.vt < b.vt ? -1 : 1;
+        }
+        return Long.compare(a.seq, b.seq);
+    }
+
+    /**
+     * In-order walk with a stack of the pending ancestors, which never holds more nodes than the height
+     */
+    private static class TreeCursor implements ProcessCursor {
+        private final ProcNode[] stack;
+        private int depth;
+        private ProcNode current;
+
+        TreeCursor(int height) {
+            stack = new ProcNode[height];
+        }
+
+        void push(ProcNode node) {
+            stack[depth++] = node;
+        }
+
+        void pushLeftSpine(ProcNode node) {
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.leftChild;
+            }
+        }
+
+        @Override
+        public boolean next() {
+            if (depth == 0) {
+                return false;
+            }
+            Probe.visit();
+            current = stack[--depth];
+            pushLeftSpine(current.rightChild);
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.procLabel;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static class ProcNode {
+        ProcNode leftChild;
+        ProcNode rightChild;
+        String procLabel;
+        int vt;
+        long seq;
+        /*
+         *   Augmented fields of the subtree rooted at this node
+         */
+        int height;
+        int size;
+        long sum;
+
+        ProcNode(String procLabel, int vt, long seq) {
+            this.procLabel = procLabel;
+            this.vt = vt;
+            this.seq = seq;
+            this.height = 1;
+            this.size = 1;
+            this.sum = vt;
+        }
+    }
+
+} // end of class BalancedTreeRQ
@@ -0,0 +1,392 @@
+package scheduler;
+
+import java.lang.String;
+import java.util.ArrayDeque;
+
+/**
+ * Implementation of the Runqueue interface using a Binary Search Tree.
+ * <p>
+ * Your task is to complete the implementation of this class.
+ * You may add methods and attributes, but ensure your modified class compiles and runs.
+ *
+ * @author Sajal Halder, Minyi Li, Jeffrey Chan
+ */
+public class BinarySearchTreeRQ implements Runqueue {
+    private ProcNode root;
+    private final LabelIndex<ProcNode> labelIndex;
+
+    /**
+     * Constructs empty queue
+     */
+    public BinarySearchTreeRQ() {
+        root = null;
+        labelIndex = new LabelIndex<>();
+    }  // end of BinarySearchTreeRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (findProcess(procLabel)) {
+            return;
+        }
+        ProcNode procNode = new ProcNode(procLabel, vt);
+        labelIndex.put(procLabel, procNode);
+        insert(procNode);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        String deLabel;
+        if (root == null) {
+            return "";
+        } else {
+            deLabel = findMin(root).procLabel;
+            removeProcess(deLabel);
+            return deLabel;
+        }
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        ProcNode node = labelIndex.remove(procLabel);
+        if (node != null) {
+            unlink(node);
+            return true;
+        }
+        return false;
+    } // end of removeProcess()
+
+
+    /**
+     * Unlink the node and insert the same node again with the new vt.
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        ProcNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        node.vt = vt;
+        node.leftChild = null;
+        node.rightChild = null;
+        insert(node);
+        return true;
+    } // end of updateVruntime()
+
+
+    /**
+     * Walk the tree in order from the first process and sum the vt until the specified process.
+     */
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        ProcNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        TreeCursor cursor = new TreeCursor();
+        cursor.pushLeftSpine(root);
+        int sum = 0;
+        while (cursor.next() && cursor.current != node) {
+            sum += cursor.current.vt;
+        }
+        return sum;
+    } // end of precedingProcessTime()
+
+
+    /**
+     * Walk the tree in order from the specified process and sum the vt of the processes after it.
+     */
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        ProcessCursor cursor = cursor(procLabel);
+        if (!cursor.next()) {
+            return -1;
+        }
+        int sum = 0;
+        while (cursor.next()) {
+            sum += cursor.vt();
+        }
+        return sum;
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        TreeCursor cursor = new TreeCursor();
+        cursor.pushLeftSpine(root);
+        return cursor;
+    } // end of cursor()
+
+
+    /**
+     * Descend from the root to the process, keeping the ancestors it is on the left of, which are the
+     * processes that follow it. A process with the same vt as an ancestor is always on its right.
+     */
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        ProcNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return ProcessCursor.EMPTY;
+        }
+        TreeCursor cursor = new TreeCursor();
+        ProcNode current = root;
+        while (current != node) {
+            Probe.compare();
+            Probe.visit();
+            if (node.vt < current.vt) {
+                cursor.stack.push(current);
+                current = current.leftChild;
+            } else {
+                current = current.rightChild;
+            }
+        }
+        cursor.stack.push(node);
+        return cursor;
+    } // end of cursor()
+
+
+    /**
+     * Descend from the root towards the first process with a vt of at least the given vt, keeping the
+     * ancestors the search goes left of.
+     */
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        TreeCursor cursor = new TreeCursor();
+        ProcNode current = root;
+        while (current != null) {
+            Probe.compare();
+            Probe.visit();
+            if (current.vt >= vt) {
+                cursor.stack.push(current);
+                current = current.leftChild;
+            } else {
+                current = current.rightChild;
+            }
+        }
+        return cursor;
+    } // end of cursorFromVruntime()
+
+    /**
+     * Link a node in as a leaf, a node with the same vt as an ancestor goes to its right
+     */
+    private void insert(ProcNode procNode) {
+        if (root == null) {
+            root = procNode;
+            root.pos = 0;
+            return;
+        }
+        ProcNode current = root;
+        ProcNode parent;
+        while (true) {
+            Probe.compare();
+            Probe.visit();
+            parent = current;
+            if (procNode.vt < current.vt) {
+                current = current.leftChild;
+                if (current == null) {
+                    procNode.pos = -1;
+                    parent.leftChild = procNode;
+                    return;
+                }
+            } else {
+                current = current.rightChild;
+                if (current == null) {
+                    procNode.pos = 1;
+                    parent.rightChild = procNode;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the node out of the tree, the label index is left unchanged
+     */
+    private void unlink(ProcNode node) {
+        ProcNode parent = parentHelper(root, node);
+        //Case 1: The node has no children
+        if (node.leftChild == null && node.rightChild == null) {
+            if (node.pos == 0) {
+                root = null;
+            } else if (node.pos == -1) {
+
+                parent.leftChild = null;
+            } else if (node.pos == 1) {
+                parent.rightChild = null;
+            }
+        }
+        //Case 2: The node has no left child but right child exist
+        else if (node.leftChild == null) {
+            if (node.pos == 0) {
+                node.rightChild.pos = 0;
+                root = node.rightChild;
+            } else if (node.pos == -1) {
+                node.rightChild.pos = -1;
+                parent.leftChild = node.rightChild;
+            } else if (node.pos == 1) {
+                parent.rightChild = node.rightChild;
+            }
+        }
+        //Case 3: The node has no right child but left child exist
+        else if (node.rightChild == null) {
+            if (node.pos == 0) {
+                node.leftChild.pos = 0;
+                root = node.leftChild;
+            } else if (node.pos == -1) {
+                parent.leftChild = node.leftChild;
+            } else if (node.pos == 1) {
+                node.leftChild.pos = 1;
+                parent.rightChild = node.leftChild;
+            }
+        }//Case 4: The node has two children
+        else {
+            ProcNode nRoot = findMin(node.rightChild);
+            if (nRoot != node.rightChild) {
+                //Remove the nRoot from its parent, its right child takes its place
+                ProcNode nRootParent = findMinParent(node.rightChild);
+                nRootParent.leftChild = nRoot.rightChild;
+                if (nRoot.rightChild != null) {
+                    nRoot.rightChild.pos = -1;
+                }
+                nRoot.rightChild = node.rightChild;
+            }
+            nRoot.leftChild = node.leftChild;
+            //The nRoot takes the place of the removed node under its parent
+            nRoot.pos = node.pos;
+            if (node.pos == 0) {
+                root = nRoot;
+            } else if (node.pos == -1) {
+                parent.leftChild = nRoot;
+            } else if (node.pos == 1) {
+                parent.rightChild = nRoot;
+            }
+        }
+    }
+
+    private ProcNode parentHelper(ProcNode currentRoot, ProcNode targetNode) {
+        if (targetNode == root || targetNode == null) {
+            return null;
+        }
+        ProcNode current = currentRoot;
+        while (current != null) {
+            Probe.visit();
+            if (current.leftChild == targetNode || current.rightChild == targetNode) {
+                return current;
+            }
+            Probe.compare();
+            if (current.vt <= targetNode.vt) {
+                current = current.rightChild;
+            } else {
+                current = current.leftChild;
+            }
+        }
+        return null;
+    }
+
+
+    private ProcNode findMin(ProcNode start) {
+        if (start == null) {
+            return null;
+        }
+        if (start.leftChild == null) {
+            return start;
+        }
+        ProcNode min = start;
+        ProcNode current = start;
+        while (current != null) {
+            Probe.visit();
+            min = current;
+            current = current.leftChild;
+        }
+        return min;
+    }
+
+    private ProcNode findMinParent(ProcNode start) {
+        if (start == null) {
+            return null;
+        }
+        ProcNode min = start;
+        ProcNode minParent = start;
+        ProcNode current = start;
+        while (current != null) {
+            Probe.visit();
+            minParent = min;
+            min = current;
+            current = current.leftChild;
+        }
+        return minParent;
+    }
+
+
+    /**
+     * In-order walk with an explicit stack of the pending ancestors. The tree is not balanced, a tree built
+     * from increasing vt is as deep as it is large, so the walk must not recurse.
+     */
+    private static class TreeCursor implements ProcessCursor {
+        private final ArrayDeque<ProcNode> stack = new ArrayDeque<>();
+        private ProcNode current;
+
+        void pushLeftSpine(ProcNode node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.leftChild;
+            }
+        }
+
+        @Override
+        public boolean next() {
+            if (stack.isEmpty()) {
+                current = null;
+                return false;
+            }
+            Probe.visit();
+            current = stack.pop();
+            pushLeftSpine(current.rightChild);
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.procLabel;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static class ProcNode {
+        ProcNode leftChild;
+        ProcNode rightChild;
+        String procLabel;
+        int vt;
+        /*
+         *   0 root, -1 left, 1 right
+         */
+        int pos;
+
+
+        ProcNode(String procLabel, int vt, int pos) {
+            this.procLabel = procLabel;
+            this.vt = vt;
+            this.pos = pos;
+        }
+
+        public ProcNode(String procLabel, int vt) {
+            this.procLabel = procLabel;
+            this.vt = vt;
+        }
+    }
+
+} // end of class BinarySearchTreeRQ
@@ -0,0 +1,98 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Regression test of BinarySearchTreeRQ: the unlinking, which keeps a position flag (-1 left child, 1 right
+ * child, 0 root) in every node instead of a parent link, and the preceding/succeeding process time.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BinarySearchTreeRQEval {
+
+    @Order(1)
+    @DisplayName("A left child promoted into the place of a right child is unlinked from the right")
+    @Test
+    void promotedLeftChild() {
+        BinarySearchTreeRQ queue = new BinarySearchTreeRQ();
+        queue.enqueue("A", 10);
+        queue.enqueue("B", 20);
+        queue.enqueue("C", 15);
+        //B is the right child of A with only a left child, C takes its place on the right of A
+        assertTrue(queue.removeProcess("B"));
+        assertTrue(queue.removeProcess("C"));
+        assertEquals(Arrays.asList("A"), drain(queue));
+
+        //The same below a left child, then remove the promoted node again through dequeue
+        queue.enqueue("R", 50);
+        queue.enqueue("L", 30);
+        queue.enqueue("LR", 40);
+        queue.enqueue("LRL", 35);
+        assertTrue(queue.removeProcess("LR"));
+        queue.enqueue("N", 45);
+        assertEquals(Arrays.asList("L", "LRL", "N", "R"), drain(queue));
+    }
+
+    @Order(2)
+    @DisplayName("PT and ST are the vt sums before and after the process in dequeue order")
+    @Test
+    void precedingAndSucceedingTime() {
+        BinarySearchTreeRQ queue = new BinarySearchTreeRQ();
+        //C is the right child of B, a left child, so everything before C is in the left subtree of A
+        queue.enqueue("A", 50);
+        queue.enqueue("B", 30);
+        queue.enqueue("C", 40);
+        assertEquals(30, queue.precedingProcessTime("C"));
+        assertEquals(50, queue.succeedingProcessTime("C"));
+        assertEquals(0, queue.precedingProcessTime("B"));
+        assertEquals(90, queue.succeedingProcessTime("B"));
+
+        //Every process of a random tree with repeated vt, against the sums over the dequeue order
+        Random random = new Random(23);
+        queue = new BinarySearchTreeRQ();
+        List<String> labels = new ArrayList<>();
+        List<Integer> vts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int vt = 1 + random.nextInt(30);
+            queue.enqueue("P" + i, vt);
+            //Same vt goes after the earlier processes
+            int index = 0;
+            while (index < vts.size() && vts.get(index) <= vt) {
+                index++;
+            }
+            labels.add(index, "P" + i);
+            vts.add(index, vt);
+        }
+        int total = vts.stream().mapToInt(Integer::intValue).sum();
+        int before = 0;
+        for (int i = 0; i < labels.size(); i++) {
+            assertEquals(before, queue.precedingProcessTime(labels.get(i)), labels.get(i));
+            assertEquals(total - before - vts.get(i), queue.succeedingProcessTime(labels.get(i)), labels.get(i));
+            before += vts.get(i);
+        }
+        assertEquals(-1, queue.precedingProcessTime("missing"));
+        assertEquals(-1, queue.succeedingProcessTime("missing"));
+    }
+
+    /**
+     * @return The dequeued labels, a node left linked after its removal would be dequeued over and over, so
+     * the drain stops after a few more labels than were enqueued.
+     */
+    private static List<String> drain(Runqueue queue) {
+        List<String> labels = new ArrayList<>();
+        String label;
+        while (labels.size() < 16 && !(label = queue.dequeue()).isEmpty()) {
+            labels.add(label);
+        }
+        return labels;
+    }
+}
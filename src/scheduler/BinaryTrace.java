@@ -0,0 +1,416 @@
+package scheduler;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Compact binary encoding of the RunqueueTester commands, with the converter from the text format and the
+ * replay of a binary trace through a Runqueue.
+ * <p>
+ * A trace is the magic bytes "RQT1", one byte with the log2 size of the label dictionary, then one record
+ * per line of the text file. A record is an opcode byte followed by its operands:
+ * <pre>
+ *   EN label vt    DE    FP label    RP label    PT label    ST label    PA    Q    RAW length bytes
+ * </pre>
+ * Numbers are unsigned LEB128 varints. A label is a varint dictionary reference: 0 is followed by the label
+ * itself (varint length and UTF-8 bytes), which is then stored in the dictionary slot given by its hash,
+ * and i &gt; 0 refers to the label stored in slot i - 1. The encoder and the replay update the same
+ * direct-mapped dictionary, so it stays in sync and takes a fixed amount of memory however many distinct
+ * labels the trace holds.
+ * <p>
+ * A line which does not parse as a valid command, or which prints an error, is kept verbatim in a RAW
+ * record and replayed through RunqueueTester.processLine, so the replay prints the same output and error
+ * messages with the same line numbers as the text file.
+ */
+public class BinaryTrace {
+    /** Name of class, used in error messages. */
+    protected static final String progName = "BinaryTrace";
+
+    private static final byte[] MAGIC = {'R', 'Q', 'T', '1'};
+
+    private static final int DICTIONARY_BITS = 16;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    /*
+     *   Record opcodes
+     */
+    private static final int RAW = 0;
+    private static final int EN = 1;
+    private static final int DE = 2;
+    private static final int FP = 3;
+    private static final int RP = 4;
+    private static final int PT = 5;
+    private static final int ST = 6;
+    private static final int PA = 7;
+    private static final int Q = 8;
+
+
+    /**
+     * Convert text commands into a binary trace, the conversion stops after a quit command like the tester.
+     *
+     * @param inReader Input reader where the operation commands are coming from.
+     * @param out Where to write the binary trace, it is flushed but not closed.
+     *
+     * @return Number of records written.
+     *
+     * @throws IOException Thrown if there is an I/O based exception.
+     */
+    public static long convert(BufferedReader inReader, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(out);
+        String line;
+        long records = 0L;
+        boolean bQuit = false;
+        while (!bQuit && (line = inReader.readLine()) != null) {
+            bQuit = encoder.encode(line);
+            records++;
+        }
+        encoder.flush();
+        return records;
+    } // end of convert()
+
+
+    /**
+     * Replay a binary trace through the queue, the output is the same as running the text commands.
+     *
+     * @param in Input stream of the binary trace.
+     * @param queue The queue structure which the operations are executed on.
+     * @param processOutWriter Where to send the results of running the commands.
+     *
+     * @throws IOException Thrown if there is an I/O based exception or the trace is malformed.
+     */
+    public static void processOperations(InputStream in, Runqueue queue, PrintWriter processOutWriter)
+        throws IOException
+    {
+        Decoder decoder = new Decoder(in);
+        // the record number is the line number of the text file
+        int lineNum = 1;
+        boolean bQuit = false;
+        // consecutive enqueue commands are collected and added with a single enqueueAll call
+        EnqueueBatch batch = new EnqueueBatch();
+
+        int opcode;
+        while (!bQuit && (opcode = decoder.readOpcode()) != -1) {
+            if (opcode != EN && opcode != RAW) {
+                batch.flush(queue);
+            }
+            switch (opcode) {
+                case EN:
+                    String label = decoder.readLabel();
+                    batch.add(label, decoder.readVarint());
+                    break;
+                case DE:
+                    processOutWriter.println(queue.dequeue());
+                    break;
+                case FP:
+                    processOutWriter.println(queue.findProcess(decoder.readLabel()));
+                    break;
+                case RP:
+                    processOutWriter.println(queue.removeProcess(decoder.readLabel()));
+                    break;
+                case PT:
+                    processOutWriter.println(queue.precedingProcessTime(decoder.readLabel()));
+                    break;
+                case ST:
+                    processOutWriter.println(queue.succeedingProcessTime(decoder.readLabel()));
+                    break;
+                case PA:
+                    queue.printAllProcesses(processOutWriter);
+                    break;
+                case Q:
+                    bQuit = true;
+                    break;
+                case RAW:
+                    bQuit = RunqueueTester.processLine(decoder.readString(), lineNum, queue, processOutWriter, batch);
+                    break;
+                default:
+                    throw new IOException(lineNum + ": unknown record type " + opcode + ".");
+            }
+            lineNum++;
+        }
+
+        batch.flush(queue);
+        // quit or end of input, push out whatever is still buffered
+        processOutWriter.flush();
+    } // end of processOperations()
+
+
+    /**
+     * Converter main method.
+     *
+     * @param args Filename of the text commands and filename of the binary trace to write.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(progName + ": <filename of input commands> <filename of binary trace>");
+            System.exit(1);
+        }
+        try (BufferedReader inReader = new BufferedReader(new FileReader(args[0]));
+             OutputStream out = new FileOutputStream(args[1])) {
+            long records = convert(inReader, out);
+            System.out.println("Converted " + records + " commands to " + args[1] + ".");
+        }
+        catch (FileNotFoundException ex) {
+            System.err.println("One of the specified files not found.");
+        }
+        catch (IOException ex) {
+            System.err.println(ex.getMessage());
+        }
+    } // end of main()
+
+    /**
+     * Dictionary slot of a label, the same on both sides since it only depends on String.hashCode
+     */
+    private static int slot(String label) {
+        int h = label.hashCode();
+        return (h ^ (h >>> 16)) & ((1 << DICTIONARY_BITS) - 1);
+    }
+
+    /**
+     * Writes the records of text lines into a buffered stream
+     */
+    static class Encoder {
+        private final OutputStream out;
+        private final String[] dictionary;
+
+        Encoder(OutputStream out) throws IOException {
+            this.out = new BufferedOutputStream(out, BUFFER_BYTES);
+            dictionary = new String[1 << DICTIONARY_BITS];
+            this.out.write(MAGIC);
+            this.out.write(DICTIONARY_BITS);
+        }
+
+        /**
+         * Encode one line the way RunqueueTester.processLine reads it.
+         *
+         * @return True if the line is the quit command.
+         */
+        boolean encode(String line) throws IOException {
+            String[] tokens = line.split(" ");
+            if (tokens.length < 1) {
+                writeRaw(line);
+                return false;
+            }
+            switch (tokens[0].toUpperCase()) {
+                case "EN":
+                    int vt = tokens.length == 3 ? parseVt(tokens[2]) : -1;
+                    if (vt < 0) {
+                        writeRaw(line);
+                    } else {
+                        out.write(EN);
+                        writeLabel(tokens[1]);
+                        writeVarint(vt);
+                    }
+                    return false;
+                case "DE":
+                    if (tokens.length == 1) {
+                        out.write(DE);
+                    } else {
+                        writeRaw(line);
+                    }
+                    return false;
+                case "FP":
+                    return writeLabelCommand(FP, tokens, line);
+                case "RP":
+                    return writeLabelCommand(RP, tokens, line);
+                case "PT":
+                    return writeLabelCommand(PT, tokens, line);
+                case "ST":
+                    return writeLabelCommand(ST, tokens, line);
+                case "PA":
+                    out.write(PA);
+                    return false;
+                case "Q":
+                    out.write(Q);
+                    return true;
+                default:
+                    writeRaw(line);
+                    return false;
+            }
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        private boolean writeLabelCommand(int opcode, String[] tokens, String line) throws IOException {
+            if (tokens.length == 2) {
+                out.write(opcode);
+                writeLabel(tokens[1]);
+            } else {
+                writeRaw(line);
+            }
+            return false;
+        }
+
+        /**
+         * @return The vt, or -1 if the tester would print an error for it.
+         */
+        private int parseVt(String token) {
+            try {
+                return Math.max(Integer.parseInt(token), -1);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private void writeLabel(String label) throws IOException {
+            int slot = slot(label);
+            if (label.equals(dictionary[slot])) {
+                writeVarint(slot + 1);
+            } else {
+                dictionary[slot] = label;
+                writeVarint(0);
+                writeString(label);
+            }
+        }
+
+        private void writeRaw(String line) throws IOException {
+            out.write(RAW);
+            writeString(line);
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarint(int value) throws IOException {
+            Varint.write(out, value);
+        }
+    }
+
+    /**
+     * Reads the records of a trace through its own buffer, so that decoding a byte is an array access
+     */
+    static class Decoder {
+        private final InputStream in;
+        private final byte[] buffer;
+        /**
+         * The buffer seen by the varint decoder
+         */
+        private final ByteBuffer view;
+        private int position;
+        private int limit;
+        private String[] dictionary;
+        private byte[] scratch;
+
+        Decoder(InputStream in) throws IOException {
+            this.in = in;
+            buffer = new byte[BUFFER_BYTES];
+            view = ByteBuffer.wrap(buffer);
+            scratch = new byte[64];
+            for (byte b : MAGIC) {
+                if (readOpcode() != b) {
+                    throw new IOException("Not a binary trace.");
+                }
+            }
+            int dictionaryBits = readByte();
+            if (dictionaryBits != DICTIONARY_BITS) {
+                throw new IOException("Unsupported label dictionary size.");
+            }
+            dictionary = new String[1 << dictionaryBits];
+        }
+
+        /**
+         * @return The next byte, or -1 at the end of the trace.
+         */
+        int readOpcode() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        String readLabel() throws IOException {
+            int reference = readVarint();
+            if (reference == 0) {
+                String label = readString();
+                dictionary[slot(label)] = label;
+                return label;
+            }
+            String label = reference <= dictionary.length ? dictionary[reference - 1] : null;
+            if (label == null) {
+                throw new IOException("Label reference " + reference + " is not in the dictionary.");
+            }
+            return label;
+        }
+
+        String readString() throws IOException {
+            int length = readVarint();
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length << 1)];
+            }
+            int read = 0;
+            while (read < length) {
+                if (position == limit && !fill()) {
+                    throw new EOFException("Truncated binary trace.");
+                }
+                int chunk = Math.min(length - read, limit - position);
+                System.arraycopy(buffer, position, scratch, read, chunk);
+                position += chunk;
+                read += chunk;
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int readVarint() throws IOException {
+            if (limit - position < Varint.MAX_BYTES) {
+                refill();
+            }
+            view.limit(limit);
+            view.position(position);
+            int value = Varint.get(view);
+            if (value < 0) {
+                //Less than MAX_BYTES are only left at the end of the trace
+                if (!view.hasRemaining()) {
+                    throw new EOFException("Truncated binary trace.");
+                }
+                throw new IOException("Malformed varint in binary trace.");
+            }
+            position = view.position();
+            return value;
+        }
+
+        private int readByte() throws IOException {
+            int b = readOpcode();
+            if (b == -1) {
+                throw new EOFException("Truncated binary trace.");
+            }
+            return b;
+        }
+
+        /**
+         * Move the unread bytes to the front of the buffer and read until a whole varint is there or the trace ends
+         */
+        private void refill() throws IOException {
+            limit -= position;
+            System.arraycopy(buffer, position, buffer, 0, limit);
+            position = 0;
+            int read;
+            while (limit < Varint.MAX_BYTES && (read = in.read(buffer, limit, buffer.length - limit)) > 0) {
+                limit += read;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int read = in.read(buffer, 0, buffer.length);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+    }
+
+} // end of class BinaryTrace
@@ -0,0 +1,508 @@
+package scheduler;
+
+import java.util.Arrays;
+
+
+/**
+ * Implementation of the Runqueue interface using one FIFO bucket per vt value.
+ * <p>
+ * This is meant for bounded vt ranges, like the 1..100 vt of the DataStructureEval processes. A bitmap
+ * marks the non-empty buckets so dequeue takes the head of the lowest one, and a Fenwick tree over the
+ * vt total of every bucket answers the preceding/succeeding process time in O(log V + log B), B being the
+ * size of the bucket of the process. Enqueue, dequeue and remove cost O(log V + log B) as well.
+ * <p>
+ * The buckets cover the vt in [0, maxVt]. A process with a vt outside of it, negative or larger, is kept in
+ * an overflow BalancedTreeRQ instead and costs O(log n) like in the tree, so every vt is accepted without
+ * allocating a bucket per vt. The negative vt go before the buckets and the larger ones after them, and a
+ * vt always goes to the same place, so the FIFO order among the same vt is kept.
+ * <p>
+ * The processes inside one bucket all have the same vt, so PT/ST only need the position of the process
+ * inside its own bucket on top of the Fenwick prefix sum. Every process gets an increasing ticket when it is
+ * appended to its bucket, and a second Fenwick tree per bucket counts the tickets still in the bucket, so the
+ * position is the number of tickets below the one of the process. When a bucket runs out of tickets, its
+ * processes are numbered again from 0 in one walk, which is amortized over the appends that used them up.
+ */
+public class BucketRQ implements Runqueue {
+    private static final int DEFAULT_CAPACITY = 128;
+    private static final int MIN_TICKETS = 16;
+
+    /**
+     * First and last process of every bucket, bucket i holds the processes with vt == i
+     */
+    private BucketNode[] heads;
+    private BucketNode[] tails;
+
+    /**
+     * Bit i is set when bucket i is not empty
+     */
+    private long[] occupied;
+
+    /**
+     * Fenwick tree over the vt total of every bucket, 1-based
+     */
+    private long[] fenwick;
+
+    /**
+     * Next append ticket of every bucket, and a Fenwick tree per bucket over its tickets counting the
+     * processes still in it, 1-based and allocated on the first append
+     */
+    private int[] nextTicket;
+    private int[][] ticketTrees;
+
+    /**
+     * Number and vt total of the processes in the buckets
+     */
+    private int size;
+    private long totalTime;
+
+    /**
+     * Processes with a vt outside of the buckets, with the number and vt total of the negative ones
+     */
+    private final BalancedTreeRQ overflow;
+    private int overflowSize;
+    private long overflowTime;
+    private int belowSize;
+    private long belowTime;
+
+    /**
+     * Every process, in a bucket or in the overflow
+     */
+    private final LabelIndex<BucketNode> labelIndex;
+
+    /**
+     * Constructs empty queue sized for the default vt range
+     */
+    public BucketRQ() {
+        this(DEFAULT_CAPACITY - 1);
+    }  // end of BucketRQ()
+
+    /**
+     * Constructs empty queue
+     *
+     * @param maxVt The largest vt kept in a bucket, larger vt are still accepted in the overflow.
+     */
+    public BucketRQ(int maxVt) {
+        if (maxVt < 0) {
+            throw new IllegalArgumentException("maxVt must be non-negative.");
+        }
+        allocate(maxVt + 1);
+        size = 0;
+        totalTime = 0L;
+        overflow = new BalancedTreeRQ();
+        labelIndex = new LabelIndex<>();
+    }  // end of BucketRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (labelIndex.containsKey(procLabel)) {
+            return;
+        }
+        BucketNode node = new BucketNode(procLabel, vt);
+        add(node);
+        labelIndex.put(procLabel, node);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        if (belowSize == 0 && size > 0) {
+            BucketNode first = heads[lowestBucket()];
+            unlink(first);
+            labelIndex.remove(first.label);
+            return first.label;
+        }
+        if (overflowSize == 0) {
+            return "";
+        }
+        //Only a negative vt goes before the buckets, otherwise the buckets are empty
+        String deLabel = overflow.dequeue();
+        overflowTaken(labelIndex.remove(deLabel).vt);
+        return deLabel;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        BucketNode node = labelIndex.remove(procLabel);
+        if (node == null) {
+            return false;
+        }
+        take(node);
+        return true;
+    } // end of removeProcess()
+
+
+    /**
+     * Move the node from its bucket to the tail of the bucket of the new vt, in O(log V).
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        BucketNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return false;
+        }
+        take(node);
+        node.vt = vt;
+        add(node);
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        BucketNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        return (int) precedingSum(node);
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        BucketNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        return (int) (totalTime + overflowTime - precedingSum(node) - node.vt);
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        return cursorFromVruntime(Integer.MIN_VALUE);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        BucketNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return ProcessCursor.EMPTY;
+        }
+        if (inBuckets(node.vt)) {
+            return new BucketCursor(null, false, node);
+        }
+        return new BucketCursor(overflow.cursor(procLabel), node.vt > 0, null);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        if (vt >= heads.length) {
+            return new BucketCursor(overflow.cursorFromVruntime(vt), true, null);
+        }
+        if (vt < 0 && belowSize > 0) {
+            return new BucketCursor(overflow.cursorFromVruntime(vt), false, null);
+        }
+        int bucket = nextBucket(Math.max(vt, 0));
+        return new BucketCursor(null, false, bucket == -1 ? null : heads[bucket]);
+    } // end of cursorFromVruntime()
+
+    /**
+     * @return The number of processes in the queue.
+     */
+    public int size() {
+        return size + overflowSize;
+    }
+
+    private boolean inBuckets(int vt) {
+        return vt >= 0 && vt < heads.length;
+    }
+
+    /**
+     * Put the node in its bucket, or in the overflow if its vt is outside of the buckets
+     */
+    private void add(BucketNode node) {
+        if (inBuckets(node.vt)) {
+            link(node);
+            return;
+        }
+        overflow.enqueue(node.label, node.vt);
+        overflowSize++;
+        overflowTime += node.vt;
+        if (node.vt < 0) {
+            belowSize++;
+            belowTime += node.vt;
+        }
+    }
+
+    /**
+     * Take the node out of its bucket or out of the overflow
+     */
+    private void take(BucketNode node) {
+        if (inBuckets(node.vt)) {
+            unlink(node);
+        } else {
+            overflow.removeProcess(node.label);
+            overflowTaken(node.vt);
+        }
+    }
+
+    private void overflowTaken(int vt) {
+        overflowSize--;
+        overflowTime -= vt;
+        if (vt < 0) {
+            belowSize--;
+            belowTime -= vt;
+        }
+    }
+
+    private long precedingSum(BucketNode node) {
+        if (node.vt < 0) {
+            return overflow.precedingProcessTime(node.label);
+        }
+        if (node.vt >= heads.length) {
+            //Every bucket and every negative vt go before it, they are counted by the overflow
+            return totalTime + overflow.precedingProcessTime(node.label);
+        }
+        int ahead = ticketsBelow(ticketTrees[node.vt], node.ticket);
+        return belowTime + fenwickPrefix(node.vt) + (long) ahead * node.vt;
+    }
+
+    /**
+     * Append the node to the tail of the bucket of its vt
+     */
+    private void link(BucketNode node) {
+        int vt = node.vt;
+        int[] tree = ticketTrees[vt];
+        if (tree == null || nextTicket[vt] == tree.length - 1) {
+            tree = renumber(vt);
+        }
+        node.ticket = nextTicket[vt]++;
+        ticketAdd(tree, node.ticket, 1);
+        BucketNode tail = tails[vt];
+        if (tail == null) {
+            heads[vt] = node;
+            occupied[vt >>> 6] |= 1L << vt;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+        }
+        tails[vt] = node;
+        fenwickAdd(vt, vt);
+        size++;
+        totalTime += vt;
+    }
+
+    private void unlink(BucketNode node) {
+        int vt = node.vt;
+        if (node.prev == null) {
+            heads[vt] = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tails[vt] = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        ticketAdd(ticketTrees[vt], node.ticket, -1);
+        if (heads[vt] == null) {
+            occupied[vt >>> 6] &= ~(1L << vt);
+            //Every ticket is taken back, the tree is all zero again
+            nextTicket[vt] = 0;
+        }
+        fenwickAdd(vt, -vt);
+        size--;
+        totalTime -= vt;
+    }
+
+    private int lowestBucket() {
+        return nextBucket(0);
+    }
+
+    /**
+     * @return The first non-empty bucket at or after the given bucket, or -1 if there is none.
+     */
+    private int nextBucket(int from) {
+        int word = from >>> 6;
+        if (word >= occupied.length) {
+            return -1;
+        }
+        long bits = occupied[word] & (-1L << from);
+        while (bits == 0L) {
+            Probe.visit();
+            word++;
+            if (word == occupied.length) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Add delta to the total of the bucket
+     */
+    private void fenwickAdd(int bucket, long delta) {
+        for (int i = bucket + 1; i < fenwick.length; i += i & -i) {
+            Probe.visit();
+            fenwick[i] += delta;
+        }
+    }
+
+    /**
+     * @return The vt total of the buckets strictly below the given bucket.
+     */
+    private long fenwickPrefix(int bucket) {
+        long sum = 0L;
+        for (int i = bucket; i > 0; i -= i & -i) {
+            Probe.visit();
+            sum += fenwick[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Number the processes of the bucket again from 0 in their order, with room for as many appends
+     *
+     * @return The ticket tree of the bucket.
+     */
+    private int[] renumber(int bucket) {
+        int live = 0;
+        for (BucketNode current = heads[bucket]; current != null; current = current.next) {
+            current.ticket = live++;
+        }
+        Probe.visit(live);
+        int[] tree = ticketTrees[bucket];
+        //Keep the tree while at least half of it is free for appends, otherwise at least double it
+        if (tree == null || tree.length - 1 < 2 * (live + 1)) {
+            int tickets = Math.max(MIN_TICKETS, 2 * (live + 1));
+            if (tree != null) {
+                tickets = Math.max(tickets, 2 * (tree.length - 1));
+            }
+            tree = new int[tickets + 1];
+            ticketTrees[bucket] = tree;
+        } else {
+            Arrays.fill(tree, 0);
+        }
+        //Linear construction, every ticket below live counts one
+        for (int i = 1; i < tree.length; i++) {
+            if (i <= live) {
+                tree[i]++;
+            }
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        nextTicket[bucket] = live;
+        return tree;
+    }
+
+    private static void ticketAdd(int[] tree, int ticket, int delta) {
+        for (int i = ticket + 1; i < tree.length; i += i & -i) {
+            Probe.visit();
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * @return The number of processes in the bucket with a ticket strictly below the given one.
+     */
+    private static int ticketsBelow(int[] tree, int ticket) {
+        int count = 0;
+        for (int i = ticket; i > 0; i -= i & -i) {
+            Probe.visit();
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private void allocate(int capacity) {
+        heads = new BucketNode[capacity];
+        tails = new BucketNode[capacity];
+        occupied = new long[(capacity + 63) >>> 6];
+        fenwick = new long[capacity + 1];
+        nextTicket = new int[capacity];
+        ticketTrees = new int[capacity][];
+    }
+
+    /**
+     * Walks the negative vt of the overflow, then the buckets from the given node on, then the larger vt of
+     * the overflow, in constant memory
+     */
+    private class BucketCursor implements ProcessCursor {
+        /**
+         * Overflow cursor before or after the buckets, null while walking the buckets
+         */
+        private ProcessCursor outside;
+        private boolean bucketsDone;
+        private BucketNode nextNode;
+        private BucketNode current;
+
+        /**
+         * @param bucketsDone True for a cursor which starts in the overflow above the buckets.
+         */
+        BucketCursor(ProcessCursor outside, boolean bucketsDone, BucketNode from) {
+            this.outside = outside;
+            this.bucketsDone = bucketsDone;
+            nextNode = from;
+        }
+
+        @Override
+        public boolean next() {
+            if (outside != null) {
+                if (outside.next() && (bucketsDone || outside.vt() < 0)) {
+                    current = null;
+                    return true;
+                }
+                if (bucketsDone) {
+                    return false;
+                }
+                //Past the negative vt, the larger ones are walked again by a new cursor after the buckets
+                outside = null;
+                int bucket = lowestBucket();
+                nextNode = bucket == -1 ? null : heads[bucket];
+            }
+            if (nextNode == null) {
+                bucketsDone = true;
+                outside = overflowSize > belowSize ? overflow.cursorFromVruntime(heads.length) : ProcessCursor.EMPTY;
+                return next();
+            }
+            Probe.visit();
+            current = nextNode;
+            nextNode = current.next;
+            if (nextNode == null) {
+                int bucket = nextBucket(current.vt + 1);
+                nextNode = bucket == -1 ? null : heads[bucket];
+            }
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current == null ? outside.label() : current.label;
+        }
+
+        @Override
+        public int vt() {
+            return current == null ? outside.vt() : current.vt;
+        }
+    }
+
+    static class BucketNode {
+        String label;
+        int vt;
+        int ticket;
+        BucketNode prev;
+        BucketNode next;
+
+        BucketNode(String label, int vt) {
+            this.label = label;
+            this.vt = vt;
+        }
+    }
+
+} // end of class BucketRQ
@@ -0,0 +1,181 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+
+/**
+ * Equivalence test of the three input readers of RunqueueTester: the text reader, the memory-mapped
+ * MappedCommandParser and the replay of a trace converted by BinaryTrace.
+ * <p>
+ * The same command file is run through every reader into a new queue, and the output and everything printed
+ * to System.err must be identical, with CRLF, bare CR and missing line terminators, malformed commands and
+ * non-ASCII labels.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CommandReaderEval {
+    /**
+     * Labels of the random commands, with multi-byte UTF-8 labels among them
+     */
+    private static final String[] LABELS = {
+            "A", "b", "P10", "Proze\u00df", "\u9032\u7a0b", "\u00e9", "\u00fcn\u00ef", "Z"
+    };
+
+    private static final String[] TERMINATORS = {"\n", "\r\n", "\r"};
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("command-reader-eval");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Order(1)
+    @DisplayName("Malformed lines, CRLF and non-ASCII labels give the same output and errors with every reader")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}")
+    @MethodSource("nameProvider")
+    void edgeCases(String name) throws IOException {
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        String[] lines = {
+                "EN A 5", "EN Proze\u00df 3", "EN \u9032\u7a0b 3", "en b 7", "EN \u00e9 3",
+                //Missing and bad vt, negative, overflowing, an empty field and a trailing space
+                "EN C", "EN D x", "EN E -4", "EN F 99999999999", "EN  G 2", "EN H 2 ", "EN I +2",
+                //Empty line, leading space, unknown commands and wrong numbers of tokens
+                "", " DE", "XX", "ENN J 1", "DE extra", "PT", "FP A B",
+                "FP Proze\u00df", "FP \u9032\u7a0b", "PT \u9032\u7a0b", "ST A", "RP \u00e9", "FP \u00e9",
+                "PA", "DE", "pa"
+        };
+        for (int i = 0; i < lines.length; i++) {
+            input.write(lines[i].getBytes(StandardCharsets.UTF_8));
+            input.write(TERMINATORS[i % TERMINATORS.length].getBytes(StandardCharsets.US_ASCII));
+        }
+        //A byte that is no UTF-8 at all, and a last line without a terminator
+        input.write(new byte[]{'E', 'N', ' ', (byte) 0xff, ' ', '4', '\n'});
+        input.write("PA".getBytes(StandardCharsets.US_ASCII));
+
+        String[] text = assertSameResults(name, input.toByteArray());
+        assertFalse(text[1].isEmpty(), "The malformed lines printed no error");
+    }
+
+    @Order(2)
+    @DisplayName("Random commands with mixed line terminators give the same output and errors with every reader")
+    @ParameterizedTest(name = "{index} => Seed = {0}")
+    @ValueSource(ints = {1, 2, 3, 4, 5})
+    void randomCommands(int seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder input = new StringBuilder();
+        String[] commands = {"EN", "EN", "EN", "DE", "FP", "RP", "PT", "ST", "PA", "de", "XX"};
+        for (int i = 0; i < 3000; i++) {
+            String command = commands[random.nextInt(commands.length)];
+            input.append(command);
+            if (command.equalsIgnoreCase("EN") || random.nextInt(10) == 0) {
+                input.append(' ').append(LABELS[random.nextInt(LABELS.length)]).append(random.nextInt(50));
+            }
+            if (command.equals("EN")) {
+                int kind = random.nextInt(20);
+                input.append(' ').append(kind == 0 ? "-3" : kind == 1 ? "vt" : String.valueOf(random.nextInt(100)));
+            }
+            //The very last line may also end without a terminator
+            if (i < 2999 || random.nextBoolean()) {
+                input.append(TERMINATORS[random.nextInt(TERMINATORS.length)]);
+            }
+        }
+        //A quit somewhere in the second half, the readers must all stop there
+        if (seed % 2 == 0) {
+            int quit = input.indexOf("\n", input.length() / 2) + 1;
+            input.insert(quit, "Q\n");
+        }
+        assertSameResults("heap", input.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Run the input through the three readers, each into a new queue of the implementation.
+     *
+     * @return Output and errors of the text reader.
+     */
+    private String[] assertSameResults(String name, byte[] input) throws IOException {
+        Path commands = directory.resolve("commands.in");
+        Files.write(commands, input);
+        String[] text = run("text", name, commands);
+        for (String reader : new String[]{"mmap", "binary"}) {
+            String[] results = run(reader, name, commands);
+            assertEquals(text[0], results[0], name + " " + reader + " output");
+            assertEquals(text[1], results[1], name + " " + reader + " errors");
+        }
+        return text;
+    }
+
+    /**
+     * Run the command file like RunqueueTester does with the given input reader.
+     *
+     * @return Output and errors of the run.
+     */
+    private String[] run(String reader, String name, Path commands) throws IOException {
+        Runqueue queue = RunqueueFactory.create(name);
+        StringWriter out = new StringWriter();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+        System.setErr(new PrintStream(err, true));
+        try (PrintWriter outWriter = new PrintWriter(out)) {
+            switch (reader) {
+                case "mmap":
+                    try (FileChannel channel = FileChannel.open(commands, StandardOpenOption.READ)) {
+                        MappedCommandParser.processOperations(channel, queue, outWriter);
+                    }
+                    break;
+                case "binary":
+                    Path trace = directory.resolve("commands.bin");
+                    try (BufferedReader inReader = new BufferedReader(new FileReader(commands.toFile()));
+                         OutputStream traceOut = Files.newOutputStream(trace)) {
+                        BinaryTrace.convert(inReader, traceOut);
+                    }
+                    try (InputStream in = Files.newInputStream(trace)) {
+                        BinaryTrace.processOperations(in, queue, outWriter);
+                    }
+                    break;
+                default:
+                    try (BufferedReader inReader = new BufferedReader(new FileReader(commands.toFile()))) {
+                        RunqueueTester.processOperations(inReader, queue, outWriter);
+                    }
+            }
+        } finally {
+            System.setErr(stderr);
+        }
+        return new String[]{out.toString(), err.toString()};
+    }
+
+    private static Stream<String> nameProvider() {
+        return Stream.of(RunqueueFactory.NAMES);
+    }
+}
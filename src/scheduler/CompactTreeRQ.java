@@ -0,0 +1,125 @@
+package scheduler;
+
+/**
+ * Implementation of the Runqueue interface using an AVL Tree stored as parallel primitive arrays.
+ * <p>
+ * The tree is the same as BalancedTreeRQ, but there is no node object: the vt, sequence, children, height
+ * and subtree vt sum of the process with interned id i are kept at index i of one array per field. Released
+ * ids are recycled by the interner, so once the arrays have grown to the working set size enqueue, dequeue
+ * and remove do not allocate.
+ * <p>
+ * Each process costs a fixed {@value #BYTES_PER_PROCESS} bytes in the tree arrays plus the interner tables.
+ */
+public class CompactTreeRQ extends SlotTreeRQ {
+    /**
+     * vt (4) + seq (8) + left (4) + right (4) + height (1) + sum (8)
+     */
+    public static final int BYTES_PER_PROCESS = 29;
+
+    private int[] vts;
+    private long[] seqs;
+    private int[] lefts;
+    private int[] rights;
+    private byte[] heights;
+    private long[] sums;
+
+    /**
+     * Constructs empty queue
+     */
+    public CompactTreeRQ() {
+        growSlots(interner.capacity());
+    }  // end of CompactTreeRQ()
+
+    /**
+     * @return Bytes used by the tree arrays and the interner tables, not counting the label strings.
+     */
+    public long footprintBytes() {
+        return (long) vts.length * BYTES_PER_PROCESS + interner.footprintBytes();
+    }
+
+    @Override
+    protected int slotCapacity() {
+        return vts.length;
+    }
+
+    @Override
+    protected void growSlots(int capacity) {
+        int[] newVts = new int[capacity];
+        long[] newSeqs = new long[capacity];
+        int[] newLefts = new int[capacity];
+        int[] newRights = new int[capacity];
+        byte[] newHeights = new byte[capacity];
+        long[] newSums = new long[capacity];
+        if (vts != null) {
+            System.arraycopy(vts, 0, newVts, 0, vts.length);
+            System.arraycopy(seqs, 0, newSeqs, 0, seqs.length);
+            System.arraycopy(lefts, 0, newLefts, 0, lefts.length);
+            System.arraycopy(rights, 0, newRights, 0, rights.length);
+            System.arraycopy(heights, 0, newHeights, 0, heights.length);
+            System.arraycopy(sums, 0, newSums, 0, sums.length);
+        }
+        vts = newVts;
+        seqs = newSeqs;
+        lefts = newLefts;
+        rights = newRights;
+        heights = newHeights;
+        sums = newSums;
+    }
+
+    @Override
+    protected void initSlot(int id, int vt, long seq) {
+        vts[id] = vt;
+        seqs[id] = seq;
+        lefts[id] = NIL;
+        rights[id] = NIL;
+        heights[id] = 1;
+        sums[id] = vt;
+    }
+
+    @Override
+    protected int vt(int id) {
+        return vts[id];
+    }
+
+    @Override
+    protected long seq(int id) {
+        return seqs[id];
+    }
+
+    @Override
+    protected int left(int id) {
+        return lefts[id];
+    }
+
+    @Override
+    protected void setLeft(int id, int left) {
+        lefts[id] = left;
+    }
+
+    @Override
+    protected int right(int id) {
+        return rights[id];
+    }
+
+    @Override
+    protected void setRight(int id, int right) {
+        rights[id] = right;
+    }
+
+    @Override
+    protected int height(int id) {
+        return heights[id];
+    }
+
+    @Override
+    protected long sum(int id) {
+        return sums[id];
+    }
+
+    @Override
+    protected void setAugment(int id, int height, long sum) {
+        heights[id] = (byte) height;
+        sums[id] = sum;
+    }
+
+} // end of class CompactTreeRQ
@@ -0,0 +1,65 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+
+/**
+ * Shared settings and task runner of the multithreaded evaluations, ConcurrentRunqueueEval and
+ * ShardedSchedulerEval. The thread counts are given to the parameterized tests with
+ * {@code @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")}.
+ */
+final class ConcurrentEvalSupport {
+    /**
+     * Number of processes per thread
+     */
+    static final int PROCESS_PER_THREAD = 50000;
+
+    /**
+     * Duration of every throughput measurement
+     */
+    static final long THROUGHPUT_MILLIS = 1000L;
+
+    private ConcurrentEvalSupport() {
+    }
+
+    /**
+     * Start all the tasks at the same time and rethrow the first failure
+     */
+    static void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return 1, 2, 4... threads up to 16, capped by the available cores but always at least 2.
+     */
+    static IntStream threadProvider() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return IntStream.iterate(1, i -> i << 1).limit(5).filter(i -> i <= Math.max(2, cores));
+    }
+}
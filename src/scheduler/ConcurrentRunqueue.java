@@ -0,0 +1,285 @@
+package scheduler;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe implementation of the Runqueue interface using a lock-free concurrent Skip List.
+ * <p>
+ * The processes are ordered in a ConcurrentSkipListSet by (vt, sequence), the sequence coming from an atomic
+ * counter so that processes with the same vt keep the FIFO order of their enqueue. A ConcurrentHashMap from
+ * label to key gives findProcess/removeProcess without any scan. No operation takes a lock.
+ * <p>
+ * Lock-free is not scalable: every dequeue polls the first node of the one skip list, so the consumers all
+ * contend on its head and the dequeue throughput does not grow with the thread count. ShardedScheduler gives
+ * every worker its own head instead.
+ * <p>
+ * Consistency model:
+ * <ul>
+ * <li>enqueue, dequeue and removeProcess are linearizable: a process is dequeued or removed at most once,
+ * and the label can be enqueued again as soon as its dequeue/remove has returned.</li>
+ * <li>updateVruntime is linearizable as a removeProcess followed by an enqueue, while it runs the process
+ * can be missed by findProcess and a concurrent dequeue. A racing removeProcess or updateVruntime of the
+ * same label waits for the move and takes the moved process, so it never misses a queued process.</li>
+ * <li>findProcess sees a process once its enqueue is visible to dequeue, and stops seeing it once it
+ * has been dequeued or removed.</li>
+ * <li>precedingProcessTime, succeedingProcessTime and the cursors are weakly consistent: they walk
+ * the live skip list and reflect every update completed before the call started and possibly some of the
+ * updates running concurrently, but they are not an atomic snapshot of the queue.</li>
+ * </ul>
+ */
+public class ConcurrentRunqueue implements Runqueue {
+    private final ConcurrentSkipListSet<ProcKey> queue;
+    private final ConcurrentHashMap<String, ProcKey> keys;
+    private final AtomicLong nextSeq;
+
+    /**
+     * Constructs empty queue
+     */
+    public ConcurrentRunqueue() {
+        queue = new ConcurrentSkipListSet<>();
+        keys = new ConcurrentHashMap<>();
+        nextSeq = new AtomicLong();
+    }  // end of ConcurrentRunqueue()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        ProcKey key = new ProcKey(procLabel, vt, nextSeq.getAndIncrement());
+        while (true) {
+            ProcKey existing = keys.putIfAbsent(procLabel, key);
+            if (existing == null) {
+                break;
+            }
+            //Do nothing if the process already exist
+            if (existing.state != ProcKey.DEAD) {
+                return;
+            }
+            //The existing process is on its way out of the queue, take over its label
+            if (keys.replace(procLabel, existing, key)) {
+                break;
+            }
+        }
+        queue.add(key);
+        //A racing dequeue may already have taken the key out again, it must stay DEAD then
+        ProcKey.STATE.compareAndSet(key, ProcKey.PENDING, ProcKey.LIVE);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        ProcKey key = queue.pollFirst();
+        if (key == null) {
+            return "";
+        }
+        release(key);
+        return key.label;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        ProcKey key = keys.get(procLabel);
+        return key != null && key.state == ProcKey.LIVE;
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        ProcKey key = take(procLabel);
+        if (key == null) {
+            return false;
+        }
+        release(key);
+        return true;
+    } // end of removeProcess()
+
+
+    /**
+     * The keys of the skip list are immutable, so the process gets a new key with the new vt and sequence.
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        ProcKey key = take(procLabel);
+        if (key == null) {
+            return false;
+        }
+        ProcKey moved = new ProcKey(procLabel, vt, nextSeq.getAndIncrement());
+        //Only enqueue replaces a label, and only once its key is DEAD, so the label still maps to the key
+        keys.replace(procLabel, key, moved);
+        //The label maps to the moved key before the old one is marked, a racing take follows it from there
+        key.state = ProcKey.MOVED;
+        queue.add(moved);
+        ProcKey.STATE.compareAndSet(moved, ProcKey.PENDING, ProcKey.LIVE);
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        ProcKey key = keys.get(procLabel);
+        if (key == null || key.state != ProcKey.LIVE) {
+            return -1;
+        }
+        long sum = 0L;
+        for (ProcKey preceding : queue.headSet(key, false)) {
+            Probe.visit();
+            sum += preceding.vt;
+        }
+        return (int) sum;
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        ProcKey key = keys.get(procLabel);
+        if (key == null || key.state != ProcKey.LIVE) {
+            return -1;
+        }
+        long sum = 0L;
+        for (ProcKey succeeding : queue.tailSet(key, false)) {
+            Probe.visit();
+            sum += succeeding.vt;
+        }
+        return (int) sum;
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        return new KeyCursor(queue.iterator());
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        ProcKey key = keys.get(procLabel);
+        if (key == null || key.state != ProcKey.LIVE) {
+            return ProcessCursor.EMPTY;
+        }
+        return new KeyCursor(queue.tailSet(key, true).iterator());
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        //No process has a negative sequence, so the probe key sorts before every process with the vt
+        ProcKey from = new ProcKey(null, vt, -1L);
+        return new KeyCursor(queue.tailSet(from, true).iterator());
+    } // end of cursorFromVruntime()
+
+    /**
+     * @return The number of processes in the queue, O(n) and weakly consistent like the skip list size.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Take the key of the label out of the skip list. Only one of the racing calls gets a key out, the others
+     * wait until the winner has marked it: DEAD after a dequeue/removeProcess, the label is gone then, or
+     * MOVED after an updateVruntime, and they go on with the moved key.
+     *
+     * @return The key taken out, null if the label is not in the queue.
+     */
+    private ProcKey take(String procLabel) {
+        ProcKey key = keys.get(procLabel);
+        while (key != null) {
+            int state = key.state;
+            if (state == ProcKey.DEAD) {
+                return null;
+            }
+            if (state == ProcKey.MOVED) {
+                key = keys.get(procLabel);
+                continue;
+            }
+            if (state == ProcKey.LIVE && queue.remove(key)) {
+                return key;
+            }
+            //Not in the skip list yet, or taken out by a racing call that has not marked it yet
+            Thread.yield();
+        }
+        return null;
+    }
+
+    /**
+     * The key has left the skip list, free its label for the next enqueue
+     */
+    private void release(ProcKey key) {
+        key.state = ProcKey.DEAD;
+        keys.remove(key.label, key);
+    }
+
+    /**
+     * Walks a weakly consistent iterator of the skip list
+     */
+    private static class KeyCursor implements ProcessCursor {
+        private final Iterator<ProcKey> iterator;
+        private ProcKey current;
+
+        KeyCursor(Iterator<ProcKey> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean next() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            Probe.visit();
+            current = iterator.next();
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.label;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static final class ProcKey implements Comparable<ProcKey> {
+        /*
+         *   PENDING until the key is in the skip list, DEAD once it has been taken out of it,
+         *   MOVED once updateVruntime has taken it out and the label maps to the moved key
+         */
+        static final int PENDING = 0;
+        static final int LIVE = 1;
+        static final int DEAD = 2;
+        static final int MOVED = 3;
+        static final AtomicIntegerFieldUpdater<ProcKey> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(ProcKey.class, "state");
+
+        final String label;
+        final int vt;
+        final long seq;
+        volatile int state;
+
+        ProcKey(String label, int vt, long seq) {
+            this.label = label;
+            this.vt = vt;
+            this.seq = seq;
+            this.state = PENDING;
+        }
+
+        /**
+         * Order by vt first, then by the insertion sequence to keep FIFO among the same vt
+         */
+        @Override
+        public int compareTo(ProcKey o) {
+            Probe.compare();
+            if (vt != o.vt) {
+                return vt < o.vt ? -1 : 1;
+            }
+            return Long.compare(seq, o.seq);
+        }
+    }
+
+} // end of class ConcurrentRunqueue
@@ -0,0 +1,220 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static scheduler.ConcurrentEvalSupport.PROCESS_PER_THREAD;
+import static scheduler.ConcurrentEvalSupport.THROUGHPUT_MILLIS;
+import static scheduler.ConcurrentEvalSupport.runAll;
+
+
+/**
+ * Multithreaded stress and throughput test of the ConcurrentRunqueue.
+ * <p>
+ * Every process label is "P" + id, so that each thread can record which processes it saw in a shared
+ * AtomicIntegerArray and the test can check that no process is lost or handed out twice. The throughput is
+ * only printed: every dequeue polls the same skip list head, so it is not expected to grow with the threads.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ConcurrentRunqueueEval {
+    @Order(1)
+    @DisplayName("Multi-producer multi-consumer, every process is dequeued exactly once")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void producerConsumer(int threads) throws Exception {
+        ConcurrentRunqueue queue = new ConcurrentRunqueue();
+        int total = threads * PROCESS_PER_THREAD;
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong dequeued = new AtomicLong();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int producer = t;
+            tasks.add(() -> {
+                Random random = new Random(producer);
+                for (int i = 0; i < PROCESS_PER_THREAD; i++) {
+                    queue.enqueue("P" + (producer * PROCESS_PER_THREAD + i), 1 + random.nextInt(100));
+                }
+                return null;
+            });
+            tasks.add(() -> {
+                while (dequeued.get() < total) {
+                    String label = queue.dequeue();
+                    if (!label.isEmpty()) {
+                        //A process handed out twice would be counted twice here
+                        seen.incrementAndGet(Integer.parseInt(label.substring(1)));
+                        dequeued.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(total, dequeued.get());
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "P" + i);
+        }
+        assertEquals("", queue.dequeue());
+    }
+
+    @Order(2)
+    @DisplayName("Racing dequeue and removeProcess take every process out exactly once")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void removeRace(int threads) throws Exception {
+        ConcurrentRunqueue queue = new ConcurrentRunqueue();
+        int total = threads * PROCESS_PER_THREAD;
+        for (int i = 0; i < total; i++) {
+            queue.enqueue("P" + i, i % 100);
+        }
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int remover = t;
+            tasks.add(() -> {
+                //Every remover walks all the labels from a different offset
+                for (int i = 0; i < total; i++) {
+                    int id = (i + remover * PROCESS_PER_THREAD) % total;
+                    if (queue.removeProcess("P" + id)) {
+                        seen.incrementAndGet(id);
+                    }
+                }
+                return null;
+            });
+            tasks.add(() -> {
+                String label;
+                while (!(label = queue.dequeue()).isEmpty()) {
+                    seen.incrementAndGet(Integer.parseInt(label.substring(1)));
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "P" + i);
+            assertFalse(queue.findProcess("P" + i));
+        }
+    }
+
+    @Order(3)
+    @DisplayName("Concurrent find and PT/ST always see either -1 or a consistent enqueued process")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void readersDuringUpdates(int threads) throws Exception {
+        ConcurrentRunqueue queue = new ConcurrentRunqueue();
+        int total = threads * PROCESS_PER_THREAD;
+        //The pinned process has the largest vt and is never removed, so it is always found
+        queue.enqueue("PINNED", Integer.MAX_VALUE);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int writer = t;
+            tasks.add(() -> {
+                for (int i = 0; i < PROCESS_PER_THREAD; i++) {
+                    String label = "P" + (writer * PROCESS_PER_THREAD + i);
+                    queue.enqueue(label, i % 100);
+                    assertTrue(queue.removeProcess(label));
+                }
+                return null;
+            });
+            tasks.add(() -> {
+                for (int i = 0; i < total / threads; i++) {
+                    assertTrue(queue.findProcess("PINNED"));
+                    assertTrue(queue.precedingProcessTime("PINNED") >= 0);
+                    assertEquals(0, queue.succeedingProcessTime("PINNED"));
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        assertEquals("PINNED", queue.dequeue());
+    }
+
+    @Order(4)
+    @DisplayName("removeProcess never misses a process moved by a racing updateVruntime")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void removeDuringUpdates(int threads) throws Exception {
+        ConcurrentRunqueue queue = new ConcurrentRunqueue();
+        int total = threads * PROCESS_PER_THREAD;
+        for (int i = 0; i < total; i++) {
+            queue.enqueue("P" + i, i % 100);
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            tasks.add(() -> {
+                //Every label has a single remover, so each removal must find the process wherever it moved
+                for (int i = worker; i < total; i += threads) {
+                    assertTrue(queue.removeProcess("P" + i), "P" + i);
+                }
+                return null;
+            });
+            tasks.add(() -> {
+                Random random = new Random(worker);
+                for (int i = 0; i < total; i++) {
+                    int id = (i + worker * PROCESS_PER_THREAD) % total;
+                    queue.updateVruntime("P" + id, random.nextInt(100));
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        assertEquals("", queue.dequeue());
+        assertEquals(0, queue.size());
+    }
+
+    @Order(5)
+    @DisplayName("Throughput of mixed enqueue/dequeue")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void throughput(int threads) throws Exception {
+        ConcurrentRunqueue queue = new ConcurrentRunqueue();
+        //Keep the queue around a steady size during the measurement
+        for (int i = 0; i < PROCESS_PER_THREAD; i++) {
+            queue.enqueue("S" + i, i % 100);
+        }
+        AtomicLong operations = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(THROUGHPUT_MILLIS);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            tasks.add(() -> {
+                Random random = new Random(worker);
+                long count = 0L;
+                long next = 0L;
+                while (System.nanoTime() < deadline) {
+                    queue.enqueue("T" + worker + "-" + next++, 1 + random.nextInt(100));
+                    queue.dequeue();
+                    count += 2;
+                }
+                operations.addAndGet(count);
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        double opsPerSecond = operations.get() * 1000.0 / THROUGHPUT_MILLIS;
+        System.out.printf("Threads: %s, Throughput: %.0f ops/s\n", threads, opsPerSecond);
+        assertTrue(operations.get() > 0);
+    }
+}
@@ -1,3 +1,5 @@
+package scheduler;
+
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xddf.usermodel.chart.*;
 import org.apache.poi.xssf.usermodel.*;
@@ -13,6 +15,7 @@ import java.io.*;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -30,7 +33,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  *
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
-@Execution(ExecutionMode.CONCURRENT)
+//Scenarios 2 to 6 run on the queues of the earlier scenarios, and the time tables and latency histograms are
+//not thread-safe, so the scenarios must run one after another
+@Execution(ExecutionMode.SAME_THREAD)
 public class DataStructureEval {
     /**
      * This formatter is used to generate the Excel file using timestamp
@@ -43,6 +48,11 @@ public class DataStructureEval {
      */
     private static final int VOLUME_PRE_TYPE = 100;
 
+    /**
+     * Seed of the generated processes, so that every run measures the same workload
+     */
+    private static final long SEED = 20200409L;
+
     /**
      * Store all the Runqueue Implementations
      * e.g BinarySearchTreeRQ/OrderedArrayRQ/OrderedLinkedListRQ
@@ -65,6 +75,11 @@ public class DataStructureEval {
      */
     private static HashMap<String, HashMap<Integer, Runqueue>> queuePool;
 
+    /**
+     * Store all the Runqueue built by enqueueAll in Test 5, the batch dequeue of Test 6 depends on it
+     */
+    private static HashMap<String, HashMap<Integer, Runqueue>> batchQueuePool;
+
     /**
      * Key = Test Scenario Number
      * Value = HashMap<Implementation Name, TimeCost List>
@@ -72,12 +87,38 @@ public class DataStructureEval {
      */
     private static HashMap<Integer, HashMap<String, List<Long>>> timeTableMap;
 
+    /**
+     * Operations whose every call latency is recorded, in the order of the latency report
+     */
+    private static final String[] LATENCY_OPERATIONS = {
+            "enqueue", "precedingProcessTime", "dequeueOnce", "dequeueAll", "enqueueAll", "dequeueBatch"
+    };
+
+    /**
+     * Percentiles of the latency report
+     */
+    private static final double[] LATENCY_PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * Key = Implementation Name + Operation + Size
+     * Value = latency of every call of the operation
+     */
+    private static Map<String, LatencyHistogram> latencyMap;
+
     @BeforeAll
     static void beforeAll() {
         typeNameList = new ArrayList<>();
         typeNameList.add(BinarySearchTreeRQ.class.getSimpleName());
         typeNameList.add(OrderedArrayRQ.class.getSimpleName());
         typeNameList.add(OrderedLinkedListRQ.class.getSimpleName());
+        typeNameList.add(BalancedTreeRQ.class.getSimpleName());
+        typeNameList.add(SkipListRQ.class.getSimpleName());
+        typeNameList.add(HeapRQ.class.getSimpleName());
+        typeNameList.add(BucketRQ.class.getSimpleName());
+        typeNameList.add(RadixHeapRQ.class.getSimpleName());
+        typeNameList.add(CompactTreeRQ.class.getSimpleName());
+        typeNameList.add(OffHeapRQ.class.getSimpleName());
+        typeNameList.add(ConcurrentRunqueue.class.getSimpleName());
 
         // Increase rate -> 50% and start from 10 with limited "VOLUME_PRE_TYPE" amount of iterations
         TEST_SIZE_LIST = IntStream.iterate(50, i -> i + 50)
@@ -88,13 +129,10 @@ public class DataStructureEval {
         TEST_SIZE_LIST.forEach(n -> {
             //The list initial size is exactly the same with n
             List<ProcTest> tmp = new ArrayList<>(n);
-            Random tmpRandom = new Random();
+            // Unique labels and run-time vary from 1 to 100, the same on every run
+            WorkloadGenerator generator = new WorkloadGenerator(SEED + n);
             for (int i = 0; i < n; i++) {
-                // Process label vary from P0 to P9999
-                String label = "P" + tmpRandom.nextInt(10000);
-                // Process run-time vary from 1 to 100
-                int vt = 1 + tmpRandom.nextInt(100);
-                tmp.add(new ProcTest(label, vt));
+                tmp.add(new ProcTest(generator.nextLabel(), generator.nextVt()));
             }
             // Make sure that every same size test case has the same test processes list
             processPool.put(n, tmp);
@@ -105,13 +143,20 @@ public class DataStructureEval {
         typeNameList.forEach(impl -> {
             queuePool.put(impl, new HashMap<>(VOLUME_PRE_TYPE));
         });
+        batchQueuePool = new HashMap<>(typeNameList.size());
+        typeNameList.forEach(impl -> {
+            batchQueuePool.put(impl, new HashMap<>(VOLUME_PRE_TYPE));
+        });
 
         //Init the timeTableMap
-        timeTableMap = new HashMap<>(4);
+        timeTableMap = new HashMap<>(6);
         timeTableMap.put(1, new HashMap<>(typeNameList.size()));
         timeTableMap.put(2, new HashMap<>(typeNameList.size()));
         timeTableMap.put(3, new HashMap<>(typeNameList.size()));
         timeTableMap.put(4, new HashMap<>(typeNameList.size()));
+        timeTableMap.put(5, new HashMap<>(typeNameList.size()));
+        timeTableMap.put(6, new HashMap<>(typeNameList.size()));
+        latencyMap = new HashMap<>();
         timeTableMap.forEach((k, v) -> {
             typeNameList.forEach(impl -> {
                 v.put(impl, new ArrayList<>());
@@ -130,12 +175,18 @@ public class DataStructureEval {
         XSSFSheet test3 = wb.createSheet("Scenario 2.1");
         // Map to the Test 4
         XSSFSheet test4 = wb.createSheet("Scenario 2.2");
+        // Map to the Test 5
+        XSSFSheet test5 = wb.createSheet("Scenario 1.1");
+        // Map to the Test 6
+        XSSFSheet test6 = wb.createSheet("Scenario 2.3");
 
         List<XSSFSheet> sheetList = new ArrayList<>();
         sheetList.add(test1);
         sheetList.add(test2);
         sheetList.add(test3);
         sheetList.add(test4);
+        sheetList.add(test5);
+        sheetList.add(test6);
 
         for (int i = 0; i < sheetList.size(); i++) {
             XSSFSheet sheet = sheetList.get(i);
@@ -152,10 +203,9 @@ public class DataStructureEval {
                 }
             }
             //Auto size the column to make the data frame look prettier
-            sheet.autoSizeColumn(0);
-            sheet.autoSizeColumn(1);
-            sheet.autoSizeColumn(2);
-            sheet.autoSizeColumn(3);
+            for (int j = 0; j <= typeNameList.size(); j++) {
+                sheet.autoSizeColumn(j);
+            }
 
             //Generate the graph
             XSSFDrawing drawing = sheet.createDrawingPatriarch();
@@ -177,40 +227,95 @@ public class DataStructureEval {
             XDDFNumericalDataSource<Double> size = XDDFDataSourcesFactory.fromNumericCellRange(sheet,
                     new CellRangeAddress(1, lastRowNum, 0, 0));
 
-            XDDFNumericalDataSource<Double> tree = XDDFDataSourcesFactory.fromNumericCellRange(sheet,
-                    new CellRangeAddress(1, lastRowNum, 1, 1));
-
-            XDDFNumericalDataSource<Double> array = XDDFDataSourcesFactory.fromNumericCellRange(sheet,
-                    new CellRangeAddress(1, lastRowNum, 2, 2));
-
-            XDDFNumericalDataSource<Double> linkedlist = XDDFDataSourcesFactory.fromNumericCellRange(sheet,
-                    new CellRangeAddress(1, lastRowNum, 3, 3));
-
-
             XDDFLineChartData data = (XDDFLineChartData) chart.createData(ChartTypes.LINE, bottomAxis, leftAxis);
 
-            XDDFLineChartData.Series series1 = (XDDFLineChartData.Series) data.addSeries(size, tree);
-            series1.setTitle("BST", null);
-            series1.setSmooth(true);
-            series1.setMarkerStyle(MarkerStyle.NONE);
-
-            XDDFLineChartData.Series series2 = (XDDFLineChartData.Series) data.addSeries(size, array);
-            series2.setTitle("Array", null);
-            series2.setSmooth(true);
-            series2.setMarkerStyle(MarkerStyle.NONE);
-
-            XDDFLineChartData.Series series3 = (XDDFLineChartData.Series) data.addSeries(size, linkedlist);
-            series3.setTitle("LinkedList", null);
-            series3.setSmooth(true);
-            series3.setMarkerStyle(MarkerStyle.NONE);
+            //One series per implementation, the column order follows the typeNameList
+            for (int j = 0; j < typeNameList.size(); j++) {
+                XDDFNumericalDataSource<Double> timeCost = XDDFDataSourcesFactory.fromNumericCellRange(sheet,
+                        new CellRangeAddress(1, lastRowNum, j + 1, j + 1));
+                XDDFLineChartData.Series series = (XDDFLineChartData.Series) data.addSeries(size, timeCost);
+                series.setTitle(typeNameList.get(j), null);
+                series.setSmooth(true);
+                series.setMarkerStyle(MarkerStyle.NONE);
+            }
 
             chart.plot(data);
         }
 
-        String timeStamp = SDF.format(new Date()) + ".xlsx";
-        try (OutputStream fileOut = new FileOutputStream(timeStamp)) {
+        String timeStamp = SDF.format(new Date());
+        try (OutputStream fileOut = new FileOutputStream(timeStamp + ".xlsx")) {
             wb.write(fileOut);
         }
+        //The latency percentiles next to the workbook
+        writeLatencyCsv(timeStamp + "-latency.csv");
+        writeLatencyJson(timeStamp + "-latency.json");
+    }
+
+    private static void writeLatencyCsv(String fileName) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
+            out.print("implementation,operation,size,count,mean");
+            for (double percentile : LATENCY_PERCENTILES) {
+                out.print(",p" + percentileName(percentile));
+            }
+            out.println(",max");
+            forEachLatency((key, histogram) -> {
+                out.printf(Locale.ROOT, "%s,%d,%.1f", key, histogram.count(), histogram.mean());
+                for (double percentile : LATENCY_PERCENTILES) {
+                    out.print("," + histogram.valueAtPercentile(percentile));
+                }
+                out.println("," + histogram.max());
+            });
+        }
+    }
+
+    private static void writeLatencyJson(String fileName) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
+            List<String> entries = new ArrayList<>();
+            forEachLatency((key, histogram) -> {
+                String[] fields = key.split(",");
+                StringBuilder entry = new StringBuilder();
+                entry.append(String.format(Locale.ROOT,
+                        "  {\"implementation\": \"%s\", \"operation\": \"%s\", \"size\": %s, \"count\": %d, \"mean\": %.1f",
+                        fields[0], fields[1], fields[2], histogram.count(), histogram.mean()));
+                for (double percentile : LATENCY_PERCENTILES) {
+                    entry.append(", \"p").append(percentileName(percentile)).append("\": ")
+                            .append(histogram.valueAtPercentile(percentile));
+                }
+                entry.append(", \"max\": ").append(histogram.max()).append('}');
+                entries.add(entry.toString());
+            });
+            out.println("[");
+            out.println(String.join(",\n", entries));
+            out.println("]");
+        }
+    }
+
+    /**
+     * Visit the recorded histograms in the order implementation, operation, size
+     */
+    private static void forEachLatency(BiConsumer<String, LatencyHistogram> visitor) {
+        for (String name : typeNameList) {
+            for (String operation : LATENCY_OPERATIONS) {
+                for (Integer size : TEST_SIZE_LIST) {
+                    String key = name + "," + operation + "," + size;
+                    LatencyHistogram histogram = latencyMap.get(key);
+                    if (histogram != null) {
+                        visitor.accept(key, histogram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 99.9 -> "99.9", 50 -> "50"
+     */
+    private static String percentileName(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static LatencyHistogram latency(String name, String operation, int size) {
+        return latencyMap.computeIfAbsent(name + "," + operation + "," + size, k -> new LatencyHistogram());
     }
 
     @BeforeEach
@@ -226,25 +331,13 @@ public class DataStructureEval {
     @ParameterizedTest(name = "{index} => Queue Type = {0}")
     @MethodSource("sizeProvider")
     void enqueue(String name, int size) {
-        Runqueue test = null;
-        switch (name) {
-            case "BinarySearchTreeRQ":
-                test = new BinarySearchTreeRQ();
-                break;
-            case "OrderedArrayRQ":
-                test = new OrderedArrayRQ();
-                break;
-            case "OrderedLinkedListRQ":
-                test = new OrderedLinkedListRQ();
-                break;
-            default:
-                break;
-        }
+        Runqueue test = newQueue(name);
         System.out.printf("Queue Type: %s, Enqueue Size: %s\n", name, size);
         List<ProcTest> preEnqueue = processPool.get(size);
 
         assert test != null;
         long totalTime = 0L;
+        LatencyHistogram histogram = latency(name, "enqueue", size);
         for (ProcTest proc : preEnqueue) {
             String label = proc.label;
             int vt = proc.vt;
@@ -252,6 +345,7 @@ public class DataStructureEval {
             test.enqueue(label, vt);
             long endTime = System.nanoTime();
             totalTime += endTime - startTime;
+            histogram.record(endTime - startTime);
             //Should return true as the process with this label is already enqueue
             assertTrue(test.findProcess(label));
         }
@@ -274,6 +368,7 @@ public class DataStructureEval {
         long startTime = System.nanoTime();
         String deLabel = test.dequeue();
         long totalTime = System.nanoTime() - startTime;
+        latency(name, "dequeueOnce", size).record(totalTime);
         //Should return false as the process with this label is already dequeue
         assertFalse(test.findProcess(deLabel));
         System.out.printf("Dequeue 1 Node Time Cost: %s\n", totalTime);
@@ -293,11 +388,13 @@ public class DataStructureEval {
         System.out.printf("Queue Type: %s, Dequeue Size: %s\n", name, deAmount);
 
         long totalTime = 0L;
+        LatencyHistogram histogram = latency(name, "dequeueAll", size);
         for (int i = 0; i < deAmount; i++) {
             long startTime = System.nanoTime();
             String deLabel = test.dequeue();
             long endTime = System.nanoTime();
             totalTime += endTime - startTime;
+            histogram.record(endTime - startTime);
             //Should return false as the process with this label is already dequeue
             assertFalse(test.findProcess(deLabel));
         }
@@ -322,6 +419,15 @@ public class DataStructureEval {
         long totalTime = System.nanoTime() - startTime;
         System.out.println("Time Cost: " + totalTime);
 
+        //The latency of a single call depends on the position, time it on every queued process
+        LatencyHistogram histogram = latency(name, "precedingProcessTime", size);
+        histogram.record(totalTime);
+        for (ProcTest proc : processPool.get(size)) {
+            long procStartTime = System.nanoTime();
+            test.precedingProcessTime(proc.label);
+            histogram.record(System.nanoTime() - procStartTime);
+        }
+
         //Remove the magic Process to avoid any other unpredictable impact
         test.removeProcess(magicLabel);
         //Should return false as the magic Process has already been removed.
@@ -330,6 +436,91 @@ public class DataStructureEval {
         timeTableMap.get(2).get(name).add(totalTime);
     }
 
+    @Order(5)
+    @DisplayName("Scenario 1.1 Growing runqueue (Enqueue All)")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}")
+    @MethodSource("sizeProvider")
+    void enqueueAll(String name, int size) {
+        Runqueue test = newQueue(name);
+        System.out.printf("Queue Type: %s, Enqueue All Size: %s\n", name, size);
+        List<ProcTest> preEnqueue = processPool.get(size);
+        String[] labels = new String[preEnqueue.size()];
+        int[] vts = new int[preEnqueue.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = preEnqueue.get(i).label;
+            vts[i] = preEnqueue.get(i).vt;
+        }
+
+        assert test != null;
+        long startTime = System.nanoTime();
+        test.enqueueAll(labels, vts);
+        long totalTime = System.nanoTime() - startTime;
+        latency(name, "enqueueAll", size).record(totalTime);
+        for (String label : labels) {
+            //Should return true as the process with this label is already enqueue
+            assertTrue(test.findProcess(label));
+        }
+        //Store the queue for the batch dequeue
+        batchQueuePool.get(name).put(size, test);
+        System.out.println("Time Cost: " + totalTime);
+
+        //Store the time into the timeTableMap
+        timeTableMap.get(5).get(name).add(totalTime);
+    }
+
+    @Order(6)
+    @DisplayName(" Scenario 2.3 Shrinking runqueue (Dequeue Batch)")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}")
+    @MethodSource("sizeProvider")
+    void dequeueBatch(String name, int size) {
+        Runqueue test;
+        test = batchQueuePool.get(name).get(size);
+
+        int deAmount = size >> 1;
+        System.out.printf("Queue Type: %s, Dequeue Batch Size: %s\n", name, deAmount);
+
+        long startTime = System.nanoTime();
+        String[] deLabels = test.dequeueBatch(deAmount);
+        long totalTime = System.nanoTime() - startTime;
+        latency(name, "dequeueBatch", size).record(totalTime);
+        for (String deLabel : deLabels) {
+            //Should return false as the process with this label is already dequeue
+            assertFalse(test.findProcess(deLabel));
+        }
+        System.out.printf("Dequeue Batch %s Nodes Time Cost: %s\n", deAmount, totalTime);
+        //Store the time into the timeTableMap
+        timeTableMap.get(6).get(name).add(totalTime);
+    }
+
+    private static Runqueue newQueue(String name) {
+        switch (name) {
+            case "BinarySearchTreeRQ":
+                return new BinarySearchTreeRQ();
+            case "OrderedArrayRQ":
+                return new OrderedArrayRQ();
+            case "OrderedLinkedListRQ":
+                return new OrderedLinkedListRQ();
+            case "BalancedTreeRQ":
+                return new BalancedTreeRQ();
+            case "SkipListRQ":
+                return new SkipListRQ();
+            case "HeapRQ":
+                return new HeapRQ();
+            case "BucketRQ":
+                return new BucketRQ();
+            case "RadixHeapRQ":
+                return new RadixHeapRQ();
+            case "CompactTreeRQ":
+                return new CompactTreeRQ();
+            case "OffHeapRQ":
+                return new OffHeapRQ();
+            case "ConcurrentRunqueue":
+                return new ConcurrentRunqueue();
+            default:
+                return null;
+        }
+    }
+
     private static Stream<Arguments> sizeProvider() {
         List<Arguments> arguments = new ArrayList<>();
         for (String typeName : typeNameList) {
@@ -0,0 +1,625 @@
+package scheduler;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32;
+
+
+/**
+ * Runqueue decorator which makes the queue survive a crash, by appending every mutation to a write-ahead
+ * log before it is forgotten, and by rebuilding the queue from the last checkpoint and the log on start.
+ * <p>
+ * Every enqueue, dequeue and successful removeProcess or updateVruntime is applied to the wrapped queue
+ * and encoded into a pending group. The group is committed, i.e., written to the log as one frame and
+ * forced to the disk with a single fsync, once it holds {@code groupSize} operations or its oldest operation is
+ * {@code flushIntervalMillis} old, whichever comes first; a background thread commits an idle group on
+ * time. A crash loses at most the operations of the pending group, so the two parameters trade the fsync
+ * cost per operation against the commit latency. {@link #sync()} commits the pending group right away.
+ * <p>
+ * A frame is its payload length, the CRC32 of the payload and the payload: one record per operation, an
+ * opcode byte and the label as a varint length and UTF-8 bytes, followed by the vt for an enqueue or an
+ * update. A
+ * dequeue logs the label it returned, so the replay does not depend on the FIFO order of the
+ * implementation. A frame torn by a crash fails its CRC, or has a record running past its end, and the log
+ * is cut before it on recovery.
+ * <p>
+ * {@link #checkpoint()} compacts the log: the queue is saved with RunqueueCheckpoint and the log is
+ * restarted empty. The files of the directory carry a generation, checkpoint-g holds the queue as it was
+ * when wal-g was started, so a crash at any point of a compaction recovers from the newest complete
+ * checkpoint and the logs from its generation on. The compaction runs by itself when the log reaches
+ * {@link #compactAfter(long)} bytes.
+ * <p>
+ * The decorator is synchronized, it may be shared between threads whatever the wrapped implementation.
+ */
+public class DurableRunqueue implements Runqueue, Closeable {
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".rqc";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final int FRAME_HEADER_BYTES = 8;
+
+    /*
+     *   Record opcodes
+     */
+    private static final int EN = 1;
+    private static final int DE = 2;
+    private static final int RP = 3;
+    private static final int UV = 4;
+
+    private final Runqueue delegate;
+    private final Path directory;
+    private final int groupSize;
+    private final long flushIntervalNanos;
+    private final ScheduledExecutorService flusher;
+
+    private long generation;
+    private FileChannel log;
+    private long logBytes;
+    private long compactAfter;
+
+    /**
+     * Records of the pending group, after room for the frame header
+     */
+    private byte[] pending;
+    private int pendingBytes;
+    private int pendingCount;
+    private long pendingSince;
+
+    private long commitCount;
+    private final CRC32 crc;
+
+    /**
+     * Error of the background commit, thrown by the next operation
+     */
+    private IOException failure;
+
+
+    /**
+     * Recover the queue from the directory and open the log for the new operations.
+     *
+     * @param delegate Empty queue which holds the processes, any implementation.
+     * @param directory Directory of the checkpoints and logs, created if it does not exist.
+     * @param groupSize Maximum number of operations committed by one fsync, 1 commits every operation.
+     * @param flushIntervalMillis Maximum time an operation waits for its commit, 0 to commit only on a
+     * full group or on sync().
+     *
+     * @throws IOException Thrown if there is an I/O based exception while recovering.
+     */
+    public DurableRunqueue(Runqueue delegate, Path directory, int groupSize, long flushIntervalMillis)
+            throws IOException {
+        if (groupSize < 1 || flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("groupSize must be positive and flushIntervalMillis non-negative.");
+        }
+        this.delegate = delegate;
+        this.directory = directory;
+        this.groupSize = groupSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        compactAfter = Long.MAX_VALUE;
+        pending = new byte[4096];
+        pendingBytes = FRAME_HEADER_BYTES;
+        crc = new CRC32();
+        Files.createDirectories(directory);
+        recover();
+        if (flushIntervalMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "DurableRunqueue-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1L, flushIntervalMillis / 2);
+            flusher.scheduleWithFixedDelay(this::flushIfDue, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    } // end of DurableRunqueue()
+
+
+    @Override
+    public synchronized void enqueue(String procLabel, int vt) {
+        checkFailure();
+        delegate.enqueue(procLabel, vt);
+        //An enqueue of a queued label changes nothing, its replay does not either
+        append(EN, procLabel, vt);
+    } // end of enqueue()
+
+
+    @Override
+    public synchronized String dequeue() {
+        checkFailure();
+        String deLabel = delegate.dequeue();
+        if (!deLabel.isEmpty()) {
+            append(DE, deLabel, 0);
+        }
+        return deLabel;
+    } // end of dequeue()
+
+
+    @Override
+    public synchronized boolean findProcess(String procLabel) {
+        return delegate.findProcess(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public synchronized boolean removeProcess(String procLabel) {
+        checkFailure();
+        boolean removed = delegate.removeProcess(procLabel);
+        if (removed) {
+            append(RP, procLabel, 0);
+        }
+        return removed;
+    } // end of removeProcess()
+
+
+    @Override
+    public synchronized boolean updateVruntime(String procLabel, int vt) {
+        checkFailure();
+        boolean updated = delegate.updateVruntime(procLabel, vt);
+        if (updated) {
+            append(UV, procLabel, vt);
+        }
+        return updated;
+    } // end of updateVruntime()
+
+
+    @Override
+    public synchronized int precedingProcessTime(String procLabel) {
+        return delegate.precedingProcessTime(procLabel);
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public synchronized int succeedingProcessTime(String procLabel) {
+        return delegate.succeedingProcessTime(procLabel);
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public synchronized void printAllProcesses(PrintWriter os) {
+        delegate.printAllProcesses(os);
+    } // end of printAllProcesses()
+
+
+    @Override
+    public synchronized void forEachProcess(ObjIntConsumer<String> visitor) {
+        delegate.forEachProcess(visitor);
+    } // end of forEachProcess()
+
+
+    /**
+     * The cursor is not synchronized, the queue must not be updated while it is in use.
+     */
+    @Override
+    public synchronized ProcessCursor cursor() {
+        return delegate.cursor();
+    } // end of cursor()
+
+
+    @Override
+    public synchronized ProcessCursor cursor(String procLabel) {
+        return delegate.cursor(procLabel);
+    } // end of cursor()
+
+
+    @Override
+    public synchronized ProcessCursor cursorFromVruntime(int vt) {
+        return delegate.cursorFromVruntime(vt);
+    } // end of cursorFromVruntime()
+
+
+    @Override
+    public synchronized String peek() {
+        return delegate.peek();
+    } // end of peek()
+
+
+    @Override
+    public synchronized int peekTopK(int k, ObjIntConsumer<String> visitor) {
+        return delegate.peekTopK(k, visitor);
+    } // end of peekTopK()
+
+
+    @Override
+    public synchronized int rangeByVruntime(int lo, int hi, ObjIntConsumer<String> visitor) {
+        return delegate.rangeByVruntime(lo, hi, visitor);
+    } // end of rangeByVruntime()
+
+
+    @Override
+    public synchronized void enqueueAll(String[] procLabels, int[] vts, int length) {
+        checkFailure();
+        delegate.enqueueAll(procLabels, vts, length);
+        for (int i = 0; i < length; i++) {
+            append(EN, procLabels[i], vts[i]);
+        }
+    } // end of enqueueAll()
+
+
+    @Override
+    public synchronized String[] dequeueBatch(int n) {
+        checkFailure();
+        String[] deLabels = delegate.dequeueBatch(n);
+        for (String deLabel : deLabels) {
+            append(DE, deLabel, 0);
+        }
+        return deLabels;
+    } // end of dequeueBatch()
+
+
+    /**
+     * Commit the pending operations now, they are on the disk when the call returns.
+     *
+     * @throws UncheckedIOException Thrown if the log cannot be written.
+     */
+    public synchronized void sync() {
+        checkFailure();
+        try {
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compact the log: commit the pending operations, save the queue to a new checkpoint, start a new
+     * empty log and delete the older checkpoint and logs.
+     *
+     * @throws IOException Thrown if there is an I/O based exception, the previous files are then kept.
+     */
+    public synchronized void checkpoint() throws IOException {
+        checkFailure();
+        commit();
+        long next = generation + 1;
+        FileChannel nextLog = startGeneration(next);
+        log.close();
+        log = nextLog;
+        logBytes = 0L;
+        generation = next;
+        deleteBefore(generation);
+    }
+
+    /**
+     * Compact the log by itself once it reaches the given size.
+     *
+     * @param bytes Log size which triggers checkpoint(), Long.MAX_VALUE to never compact on its own.
+     *
+     * @return This queue.
+     */
+    public synchronized DurableRunqueue compactAfter(long bytes) {
+        compactAfter = bytes;
+        return this;
+    }
+
+    /**
+     * @return Number of frames written to the log, i.e., of fsync calls.
+     */
+    public synchronized long commitCount() {
+        return commitCount;
+    }
+
+    /**
+     * @return Bytes in the current log, since the last checkpoint.
+     */
+    public synchronized long logBytes() {
+        return logBytes;
+    }
+
+    /**
+     * Commit the pending operations and close the log. The wrapped queue stays usable but is not logged.
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (this) {
+            if (log.isOpen()) {
+                try {
+                    commit();
+                } finally {
+                    log.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Open the empty log of the generation and save the queue to its checkpoint. The files of the older
+     * generations are not touched, they still hold the queue until the checkpoint is complete.
+     *
+     * @return The new log.
+     */
+    private FileChannel startGeneration(long next) throws IOException {
+        //The new log must exist before the checkpoint, which states that the logs from its generation follow it
+        FileChannel nextLog = openLog(next);
+        try {
+            RunqueueCheckpoint.write(delegate, checkpointPath(next));
+        } catch (IOException e) {
+            nextLog.close();
+            Files.deleteIfExists(logPath(next));
+            throw e;
+        }
+        return nextLog;
+    }
+
+    /**
+     * Restore the newest checkpoint, replay the logs from its generation on and cut a torn frame at the end.
+     * A log newer than the checkpoint means a compaction was cut short, the replayed queue is then saved to
+     * a new checkpoint before any older file is deleted.
+     */
+    private void recover() throws IOException {
+        long checkpointGeneration = -1L;
+        long lastLogGeneration = -1L;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long checkpointOf = generationOf(name, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+                long logOf = generationOf(name, LOG_PREFIX, LOG_SUFFIX);
+                checkpointGeneration = Math.max(checkpointGeneration, checkpointOf);
+                lastLogGeneration = Math.max(lastLogGeneration, logOf);
+            }
+        }
+        generation = Math.max(0L, checkpointGeneration);
+        if (checkpointGeneration >= 0) {
+            RunqueueCheckpoint.restore(checkpointPath(checkpointGeneration), delegate);
+        }
+        for (long g = generation; g <= lastLogGeneration; g++) {
+            if (Files.exists(logPath(g))) {
+                long valid = replay(logPath(g));
+                try (FileChannel channel = FileChannel.open(logPath(g), StandardOpenOption.WRITE)) {
+                    if (channel.size() > valid) {
+                        channel.truncate(valid);
+                        channel.force(true);
+                    }
+                }
+            }
+        }
+        if (lastLogGeneration > generation) {
+            //Only the checkpoint of the generation and all the logs together hold the queue, finish the compaction
+            generation = lastLogGeneration + 1;
+            log = startGeneration(generation);
+        } else {
+            log = openLog(generation);
+        }
+        logBytes = log.size();
+        deleteBefore(generation);
+    }
+
+    /**
+     * Apply the frames of a log to the wrapped queue
+     *
+     * @return Length of the log up to the last valid frame.
+     */
+    private long replay(Path path) throws IOException {
+        long valid = 0L;
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 16))) {
+            byte[] payload = new byte[4096];
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0) {
+                        break;
+                    }
+                    if (length > payload.length) {
+                        payload = new byte[Math.max(length, 2 * payload.length)];
+                    }
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                ByteBuffer records = ByteBuffer.wrap(payload, 0, length);
+                //Nothing of a frame is applied unless all of its records can be read
+                if ((int) crc.getValue() != checksum || !wellFormed(records)) {
+                    break;
+                }
+                apply(records);
+                valid += FRAME_HEADER_BYTES + length;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @return Whether every record of the frame has its label and vt within the frame, so apply() reads
+     * nothing past its end.
+     */
+    private static boolean wellFormed(ByteBuffer records) {
+        ByteBuffer view = records.duplicate();
+        while (view.hasRemaining()) {
+            int opcode = view.get();
+            int length = Varint.get(view);
+            if (length < 0 || length > view.remaining()) {
+                return false;
+            }
+            view.position(view.position() + length);
+            if (opcode == EN || opcode == UV) {
+                if (view.remaining() < 4) {
+                    return false;
+                }
+                view.position(view.position() + 4);
+            }
+        }
+        return true;
+    }
+
+    private void apply(ByteBuffer records) {
+        while (records.hasRemaining()) {
+            int opcode = records.get();
+            int length = Varint.get(records);
+            String label = new String(records.array(), records.position(), length, StandardCharsets.UTF_8);
+            records.position(records.position() + length);
+            switch (opcode) {
+                case EN:
+                    delegate.enqueue(label, records.getInt());
+                    break;
+                case DE:
+                case RP:
+                    delegate.removeProcess(label);
+                    break;
+                case UV:
+                    delegate.updateVruntime(label, records.getInt());
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown log record " + opcode + ".");
+            }
+        }
+    }
+
+    /**
+     * Add the record of an operation to the pending group, and commit the group if it is due
+     */
+    private void append(int opcode, String label, int vt) {
+        byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+        reserve(1 + Varint.MAX_BYTES + bytes.length + 4);
+        pending[pendingBytes++] = (byte) opcode;
+        pendingBytes = Varint.put(pending, pendingBytes, bytes.length);
+        System.arraycopy(bytes, 0, pending, pendingBytes, bytes.length);
+        pendingBytes += bytes.length;
+        if (opcode == EN || opcode == UV) {
+            pending[pendingBytes++] = (byte) (vt >>> 24);
+            pending[pendingBytes++] = (byte) (vt >>> 16);
+            pending[pendingBytes++] = (byte) (vt >>> 8);
+            pending[pendingBytes++] = (byte) vt;
+        }
+        if (pendingCount++ == 0) {
+            pendingSince = System.nanoTime();
+        }
+        try {
+            if (pendingCount >= groupSize
+                    || (flushIntervalNanos > 0 && System.nanoTime() - pendingSince >= flushIntervalNanos)) {
+                commit();
+            }
+            if (logBytes >= compactAfter) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the pending group as one frame and force it to the disk
+     */
+    private void commit() throws IOException {
+        if (pendingCount == 0) {
+            return;
+        }
+        int length = pendingBytes - FRAME_HEADER_BYTES;
+        crc.reset();
+        crc.update(pending, FRAME_HEADER_BYTES, length);
+        ByteBuffer frame = ByteBuffer.wrap(pending, 0, pendingBytes);
+        frame.putInt(0, length);
+        frame.putInt(4, (int) crc.getValue());
+        while (frame.hasRemaining()) {
+            log.write(frame);
+        }
+        log.force(false);
+        logBytes += pendingBytes;
+        commitCount++;
+        pendingBytes = FRAME_HEADER_BYTES;
+        pendingCount = 0;
+    }
+
+    /**
+     * Background commit of a group which waited for the flush interval
+     */
+    private synchronized void flushIfDue() {
+        if (failure == null && pendingCount > 0 && log.isOpen()
+                && System.nanoTime() - pendingSince >= flushIntervalNanos) {
+            try {
+                commit();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("The write-ahead log failed, the queue is no longer durable.", failure);
+        }
+    }
+
+    private void reserve(int n) {
+        if (pendingBytes + n > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingBytes + n));
+        }
+    }
+
+    private FileChannel openLog(long g) throws IOException {
+        FileChannel channel = FileChannel.open(logPath(g), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        //Make the new file itself durable, not only its content, and its entry in the directory before any older
+        //file is deleted
+        channel.force(true);
+        RunqueueCheckpoint.forceDirectory(directory);
+        return channel;
+    }
+
+    private void deleteBefore(long g) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long checkpointOf = generationOf(name, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+                long logOf = generationOf(name, LOG_PREFIX, LOG_SUFFIX);
+                //A checkpoint whose write was cut short is left as a temporary file
+                boolean unfinished = name.startsWith(CHECKPOINT_PREFIX) && name.endsWith(CHECKPOINT_SUFFIX + ".tmp");
+                if ((checkpointOf >= 0 && checkpointOf < g) || (logOf >= 0 && logOf < g) || unfinished) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private Path checkpointPath(long g) {
+        return directory.resolve(CHECKPOINT_PREFIX + g + CHECKPOINT_SUFFIX);
+    }
+
+    private Path logPath(long g) {
+        return directory.resolve(LOG_PREFIX + g + LOG_SUFFIX);
+    }
+
+    /**
+     * @return Generation in the file name, or -1 if the name does not have the prefix and suffix.
+     */
+    private static long generationOf(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)
+                || name.length() == prefix.length() + suffix.length()) {
+            return -1L;
+        }
+        String digits = name.substring(prefix.length(), name.length() - suffix.length());
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) {
+                return -1L;
+            }
+        }
+        return Long.parseLong(digits);
+    }
+
+} // end of class DurableRunqueue
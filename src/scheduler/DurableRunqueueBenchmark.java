@@ -0,0 +1,151 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+
+/**
+ * JMH benchmarks of the overhead of DurableRunqueue over the same implementation in memory only.
+ * <p>
+ * The queue holds {@code size} processes and every operation enqueues a new process and dequeues the
+ * first one, so the size stays the same. A {@code groupSize} of 0 runs the plain implementation, any
+ * other value wraps it in a DurableRunqueue writing to a temporary directory with that group size and
+ * {@code flushInterval} in milliseconds, and compacting its log every {@value #COMPACT_AFTER} bytes.
+ * {@code churn} reports the throughput, {@code commit} the latency of one operation followed by a sync,
+ * i.e., the time a caller waits for its operation to be durable.
+ * <p>
+ * The results depend on the fsync latency of the disk under java.io.tmpdir, run it on the disk of the
+ * service, e.g.
+ * {@code java -Djava.io.tmpdir=/data scheduler.DurableRunqueueBenchmark -p implementation=heap -p groupSize=0,1,64}
+ * This benchmark requires JMH 1.23 with its annotation processor.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DurableRunqueueBenchmark {
+    /**
+     * Number of enqueue/dequeue pairs of every invocation of the churn benchmark
+     */
+    static final int BATCH = 256;
+
+    private static final long COMPACT_AFTER = 64L << 20;
+
+    private static final long SEED = 20200409L;
+
+    @State(Scope.Thread)
+    public static class QueueState {
+        @Param({"heap", "skiplist", "balancedtree"})
+        public String implementation;
+
+        @Param({"10000"})
+        public int size;
+
+        /**
+         * 0 for the queue in memory only
+         */
+        @Param({"0", "1", "64", "1024"})
+        public int groupSize;
+
+        @Param({"0", "5"})
+        public long flushInterval;
+
+        Runqueue queue;
+        DurableRunqueue durable;
+        Path directory;
+        Random random;
+        long nextId;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Runqueue memory = RunqueueFactory.create(implementation);
+            if (memory == null) {
+                throw new IllegalArgumentException("Unknown implementation " + implementation + ".");
+            }
+            if (groupSize > 0) {
+                directory = Files.createTempDirectory("durable-runqueue");
+                durable = new DurableRunqueue(memory, directory, groupSize, flushInterval)
+                        .compactAfter(COMPACT_AFTER);
+                queue = durable;
+            } else {
+                queue = memory;
+            }
+            random = new Random(SEED);
+            for (int i = 0; i < size; i++) {
+                enqueueNext();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (durable != null) {
+                durable.close();
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+                }
+            }
+        }
+
+        /**
+         * Enqueue a new process with a vt up to 100 like DataStructureEval
+         */
+        void enqueueNext() {
+            queue.enqueue("P" + nextId++, 1 + random.nextInt(100));
+        }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void churn(QueueState state) {
+        for (int i = 0; i < BATCH; i++) {
+            state.enqueueNext();
+            state.queue.dequeue();
+        }
+    }
+
+    @Benchmark
+    public void commit(QueueState state) {
+        state.enqueueNext();
+        state.queue.dequeue();
+        if (state.durable != null) {
+            state.durable.sync();
+        }
+    }
+
+
+    /**
+     * Run the benchmarks of this class, the JMH command line options (-p, -f, -wi, -i, ...) are accepted,
+     * the results are also written to jmh-durable-result.csv.
+     *
+     * @param args JMH command line options.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.CSV)
+                .result("jmh-durable-result.csv");
+        //JMH runs the union of the includes, so the class is only included when no benchmark is named
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(Pattern.quote(DurableRunqueueBenchmark.class.getName()) + "\\.");
+        }
+        new Runner(options.build()).run();
+    }
+}
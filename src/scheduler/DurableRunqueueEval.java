@@ -0,0 +1,241 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Recovery test of the DurableRunqueue: replay of the log after the restore of a checkpoint, a crash at every
+ * step of a compaction, and a frame torn by a crash or holding a malformed record at the end of the log.
+ * <p>
+ * A crash is simulated by leaving the files of the directory as they are at that point, then the queue is
+ * recovered twice, into another implementation each time, and must hold the same processes in the same
+ * order. The second recovery checks that the first one did not delete a file it still needed.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DurableRunqueueEval {
+    /**
+     * Point of checkpoint() where the crash happens
+     */
+    enum CompactionStep {
+        /**
+         * The log of the next generation is created, its checkpoint is not written yet
+         */
+        LOG_OPENED,
+        /**
+         * The checkpoint of the next generation is partly written to its temporary file
+         */
+        CHECKPOINT_WRITING,
+        /**
+         * The checkpoint of the next generation is in place, the older files are not deleted yet
+         */
+        CHECKPOINT_MOVED
+    }
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable-runqueue-eval");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Order(1)
+    @DisplayName("The log is replayed on top of the restored checkpoint")
+    @Test
+    void replayAfterRestore() throws IOException {
+        List<String> expected;
+        try (DurableRunqueue queue = open("heap")) {
+            for (int i = 0; i < 100; i++) {
+                queue.enqueue("P" + i, i % 7);
+            }
+            queue.checkpoint();
+            //Every kind of record after the checkpoint
+            queue.dequeue();
+            assertTrue(queue.removeProcess("P50"));
+            assertTrue(queue.updateVruntime("P60", 2));
+            queue.enqueue("Q", 3);
+            expected = processes(queue);
+        }
+        assertEquals(expected, recover("skiplist"));
+        assertEquals(expected, recover("array"));
+    }
+
+    @Order(2)
+    @DisplayName("A crash at any step of a compaction loses no process")
+    @ParameterizedTest(name = "{index} => Step = {0}, Earlier checkpoint = {1}")
+    @MethodSource("crashProvider")
+    void crashDuringCompaction(CompactionStep step, boolean earlierCheckpoint) throws IOException {
+        List<String> expected;
+        long generation = earlierCheckpoint ? 1L : 0L;
+        try (DurableRunqueue queue = open("heap")) {
+            queue.enqueue("A", 1);
+            queue.enqueue("B", 1);
+            if (earlierCheckpoint) {
+                queue.checkpoint();
+            }
+            queue.enqueue("C", 2);
+            queue.enqueue("D", 0);
+            assertEquals("D", queue.dequeue());
+            expected = processes(queue);
+        }
+
+        //Leave the files of the next generation as checkpoint() would at the crash
+        Files.createFile(directory.resolve("wal-" + (generation + 1) + ".log"));
+        if (step != CompactionStep.LOG_OPENED) {
+            Runqueue snapshot = RunqueueFactory.create("array");
+            snapshot.enqueueAll(labelsOf(expected), vtsOf(expected));
+            Path checkpoint = directory.resolve("checkpoint-" + (generation + 1) + ".rqc");
+            RunqueueCheckpoint.write(snapshot, checkpoint);
+            if (step == CompactionStep.CHECKPOINT_WRITING) {
+                Path temp = directory.resolve("checkpoint-" + (generation + 1) + ".rqc.tmp");
+                Files.move(checkpoint, temp);
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.truncate(channel.size() / 2);
+                }
+            }
+        }
+
+        assertEquals(expected, recover("skiplist"));
+        assertEquals(expected, recover("balancedtree"));
+        //The recovered queue keeps logging
+        try (DurableRunqueue queue = open("heap")) {
+            queue.enqueue("E", 5);
+        }
+        List<String> withE = new ArrayList<>(expected);
+        withE.add("E:5");
+        assertEquals(withE, recover("bucket"));
+    }
+
+    @Order(3)
+    @DisplayName("A torn frame at the end of the log is cut and the log stays usable")
+    @Test
+    void tornTailFrame() throws IOException {
+        List<String> expected;
+        try (DurableRunqueue queue = new DurableRunqueue(RunqueueFactory.create("heap"), directory, 1, 0L)) {
+            for (int i = 0; i < 10; i++) {
+                queue.enqueue("P" + i, 10 - i);
+            }
+            expected = processes(queue);
+        }
+        Path log = directory.resolve("wal-0.log");
+        long committed = Files.size(log);
+        //A frame header announcing 64 bytes of which only 5 reached the disk
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer torn = ByteBuffer.allocate(13);
+            torn.putInt(64).putInt(0x12345678).put(new byte[]{1, 2, 'P', '9', '9'});
+            torn.flip();
+            channel.write(torn);
+        }
+
+        assertEquals(expected, recover("tree"));
+        assertEquals(committed, Files.size(log));
+        try (DurableRunqueue queue = open("heap")) {
+            queue.enqueue("P10", 0);
+        }
+        List<String> withP10 = new ArrayList<>(expected);
+        withP10.add(0, "P10:0");
+        assertEquals(withP10, recover("linkedlist"));
+    }
+
+    @Order(4)
+    @DisplayName("A frame with a valid CRC but a record running past its end is cut as a whole")
+    @Test
+    void malformedTailFrame() throws IOException {
+        //A valid enqueue of Q, then a label longer than the frame, a negative label length and a cut vt
+        byte[][] payloads = {
+                {1, 1, 'Q', 0, 0, 0, 1, 1, 100, 'X', 0, 0, 0, 1},
+                {1, 1, 'Q', 0, 0, 0, 1, 3, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F},
+                {1, 1, 'Q', 0, 0, 0, 1, 4, 1, 'Q', 0, 0}
+        };
+        List<String> expected;
+        try (DurableRunqueue queue = open("heap")) {
+            for (int i = 0; i < 10; i++) {
+                queue.enqueue("P" + i, 10 - i);
+            }
+            expected = processes(queue);
+        }
+        Path log = directory.resolve("wal-0.log");
+        long committed = Files.size(log);
+        for (byte[] payload : payloads) {
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, payload.length);
+            try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer frame = ByteBuffer.allocate(8 + payload.length);
+                frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+                frame.flip();
+                channel.write(frame);
+            }
+
+            //Q of the same frame is not applied either
+            assertEquals(expected, recover("tree"), Arrays.toString(payload));
+            assertEquals(committed, Files.size(log), Arrays.toString(payload));
+        }
+    }
+
+    private DurableRunqueue open(String implementation) throws IOException {
+        return new DurableRunqueue(RunqueueFactory.create(implementation), directory, 1, 0L);
+    }
+
+    /**
+     * @return The processes recovered from the directory into a new queue of the implementation.
+     */
+    private List<String> recover(String implementation) throws IOException {
+        try (DurableRunqueue queue = open(implementation)) {
+            return processes(queue);
+        }
+    }
+
+    /**
+     * @return The processes of the queue as "label:vt", in dequeue order.
+     */
+    private static List<String> processes(Runqueue queue) {
+        List<String> processes = new ArrayList<>();
+        queue.forEachProcess((label, vt) -> processes.add(label + ":" + vt));
+        return processes;
+    }
+
+    private static String[] labelsOf(List<String> processes) {
+        return processes.stream().map(process -> process.substring(0, process.indexOf(':'))).toArray(String[]::new);
+    }
+
+    private static int[] vtsOf(List<String> processes) {
+        return processes.stream().mapToInt(process -> Integer.parseInt(process.substring(process.indexOf(':') + 1)))
+                .toArray();
+    }
+
+    private static Stream<Arguments> crashProvider() {
+        List<Arguments> arguments = new ArrayList<>();
+        for (CompactionStep step : CompactionStep.values()) {
+            for (boolean earlierCheckpoint : Arrays.asList(false, true)) {
+                arguments.add(Arguments.of(step, earlierCheckpoint));
+            }
+        }
+        return arguments.stream();
+    }
+}
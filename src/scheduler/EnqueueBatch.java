@@ -0,0 +1,52 @@
+package scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Processes collected from consecutive enqueue commands, which are added to the queue with a single
+ * enqueueAll call once a command that may observe them comes in.
+ */
+public class EnqueueBatch {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] labels;
+    private int[] vts;
+    private int size;
+
+    /**
+     * Constructs empty batch
+     */
+    public EnqueueBatch() {
+        labels = new String[INITIAL_CAPACITY];
+        vts = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * @param procLabel Process label to be added.
+     * @param vt Vruntime of added process.
+     */
+    public void add(String procLabel, int vt) {
+        if (size == labels.length) {
+            labels = Arrays.copyOf(labels, size << 1);
+            vts = Arrays.copyOf(vts, size << 1);
+        }
+        labels[size] = procLabel;
+        vts[size] = vt;
+        size++;
+    }
+
+    /**
+     * Enqueue the collected processes in their command order and empty the batch.
+     *
+     * @param queue The queue structure which the processes are added to.
+     */
+    public void flush(Runqueue queue) {
+        if (size > 0) {
+            queue.enqueueAll(labels, vts, size);
+            Arrays.fill(labels, 0, size, null);
+            size = 0;
+        }
+    }
+
+} // end of class EnqueueBatch
@@ -0,0 +1,474 @@
+package scheduler;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Implementation of the Runqueue interface using an array based 4-ary min Heap.
+ * <p>
+ * The heap only keeps the minimum at the root, so enqueue and dequeue are O(log n) with a small constant
+ * and no rebalancing. Every entry remembers its slot in the heap array, and the label index points at the
+ * entry, so findProcess is O(1) and removeProcess is O(log n). Processes with the same vt are ordered by
+ * an insertion sequence number which keeps the FIFO order.
+ * <p>
+ * The heap has no total order, so precedingProcessTime/succeedingProcessTime scan the whole heap in O(n)
+ * and a cursor, which printAllProcesses walks, sorts a copy of the heap in O(n log n).
+ */
+public class HeapRQ implements Runqueue {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Number of children of every heap node
+     */
+    private static final int ARITY = 4;
+
+    private HeapEntry[] heap;
+    private int size;
+    private final LabelIndex<HeapEntry> labelIndex;
+    private long nextSeq;
+
+    /**
+     * Constructs empty heap
+     */
+    public HeapRQ() {
+        heap = new HeapEntry[INITIAL_CAPACITY];
+        size = 0;
+        labelIndex = new LabelIndex<>();
+        nextSeq = 0L;
+    }  // end of HeapRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (labelIndex.containsKey(procLabel)) {
+            return;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length << 1);
+        }
+        HeapEntry entry = new HeapEntry(procLabel, vt, nextSeq++);
+        labelIndex.put(procLabel, entry);
+        siftUp(entry, size);
+        size++;
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        if (size == 0) {
+            return "";
+        }
+        HeapEntry min = heap[0];
+        removeAt(0);
+        labelIndex.remove(min.label);
+        return min.label;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        HeapEntry entry = labelIndex.remove(procLabel);
+        if (entry == null) {
+            return false;
+        }
+        removeAt(entry.slot);
+        return true;
+    } // end of removeProcess()
+
+
+    /**
+     * Change the key of the entry in place and sift it in the one direction it moves, in O(log n).
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        HeapEntry entry = labelIndex.get(procLabel);
+        if (entry == null) {
+            return false;
+        }
+        //The new seq is larger than every other, so only a smaller vt moves the entry towards the root
+        boolean up = vt < entry.vt;
+        entry.vt = vt;
+        entry.seq = nextSeq++;
+        if (up) {
+            siftUp(entry, entry.slot);
+        } else {
+            siftDown(entry, entry.slot);
+        }
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        HeapEntry target = labelIndex.get(procLabel);
+        if (target == null) {
+            return -1;
+        }
+        //Slow path, the heap does not know the position of the target in the dequeue order
+        long sum = 0L;
+        Probe.visit(size);
+        for (int i = 0; i < size; i++) {
+            if (precedes(heap[i], target)) {
+                sum += heap[i].vt;
+            }
+        }
+        return (int) sum;
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        HeapEntry target = labelIndex.get(procLabel);
+        if (target == null) {
+            return -1;
+        }
+        //Slow path, the heap does not know the position of the target in the dequeue order
+        long sum = 0L;
+        Probe.visit(size);
+        for (int i = 0; i < size; i++) {
+            if (precedes(target, heap[i])) {
+                sum += heap[i].vt;
+            }
+        }
+        return (int) sum;
+    } // end of succeedingProcessTime()
+
+
+    /**
+     * The heap has no total order, the cursor walks a sorted copy made in O(n log n)
+     */
+    @Override
+    public ProcessCursor cursor() {
+        return new SortedCursor(sortedCopy(), 0);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        HeapEntry target = labelIndex.get(procLabel);
+        if (target == null) {
+            return ProcessCursor.EMPTY;
+        }
+        HeapEntry[] sorted = sortedCopy();
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (precedes(sorted[mid], target)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new SortedCursor(sorted, low);
+    } // end of cursor()
+
+
+    @Override
+    public String peek() {
+        return size == 0 ? "" : heap[0].label;
+    } // end of peek()
+
+
+    /**
+     * Best-first walk of the heap: the next process is the first one of a frontier holding the children of
+     * the processes already visited, kept as a small binary heap of slots. O(k log k), the frontier never
+     * holds more than (ARITY - 1) * k + 1 slots.
+     */
+    @Override
+    public int peekTopK(int k, ObjIntConsumer<String> visitor) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative.");
+        }
+        int limit = Math.min(k, size);
+        if (limit == 0) {
+            return 0;
+        }
+        int[] frontier = new int[(ARITY - 1) * limit + 1];
+        int frontierSize = 1;
+        frontier[0] = 0;
+        for (int count = 0; count < limit; count++) {
+            int slot = frontier[0];
+            frontier[0] = frontier[--frontierSize];
+            siftDownFrontier(frontier, frontierSize);
+            Probe.visit();
+            visitor.accept(heap[slot].label, heap[slot].vt);
+            int lastChild = Math.min(ARITY * slot + ARITY, size - 1);
+            for (int child = ARITY * slot + 1; child <= lastChild; child++) {
+                frontier[frontierSize] = child;
+                siftUpFrontier(frontier, frontierSize++);
+            }
+        }
+        return limit;
+    } // end of peekTopK()
+
+
+    /**
+     * Walk the heap from the root without entering the subtrees whose root is already above hi, then sort
+     * the processes found. The cost depends on the processes at or below hi, not on the whole heap.
+     */
+    @Override
+    public int rangeByVruntime(int lo, int hi, ObjIntConsumer<String> visitor) {
+        if (lo > hi || size == 0) {
+            return 0;
+        }
+        HeapEntry[] found = new HeapEntry[16];
+        int count = 0;
+        int[] stack = new int[16];
+        int depth = 0;
+        if (heap[0].vt <= hi) {
+            stack[depth++] = 0;
+        }
+        while (depth > 0) {
+            int slot = stack[--depth];
+            HeapEntry entry = heap[slot];
+            Probe.visit();
+            if (entry.vt >= lo) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = entry;
+            }
+            int lastChild = Math.min(ARITY * slot + ARITY, size - 1);
+            for (int child = ARITY * slot + 1; child <= lastChild; child++) {
+                Probe.compare();
+                if (heap[child].vt <= hi) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = child;
+                }
+            }
+        }
+        Arrays.sort(found, 0, count, (a, b) -> a.vt != b.vt ? Integer.compare(a.vt, b.vt) : Long.compare(a.seq, b.seq));
+        for (int i = 0; i < count; i++) {
+            visitor.accept(found[i].label, found[i].vt);
+        }
+        return count;
+    } // end of rangeByVruntime()
+
+    /**
+     * Append the new processes, then restore the heap with a bottom-up heapify in O(n) when the batch is at
+     * least as large as the heap, or sift every new process up otherwise.
+     */
+    @Override
+    public void enqueueAll(String[] procLabels, int[] vts, int length) {
+        if (length < 0 || length > procLabels.length || length > vts.length) {
+            throw new IllegalArgumentException("length must be within the length of procLabels and vts.");
+        }
+        if (size + length > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(size + length, heap.length << 1));
+        }
+        labelIndex.ensureCapacity(size + length);
+        int oldSize = size;
+        boolean heapify = length >= oldSize;
+        for (int i = 0; i < length; i++) {
+            //Skip the labels already in the heap or earlier in the batch, like repeated enqueue would
+            if (labelIndex.containsKey(procLabels[i])) {
+                continue;
+            }
+            HeapEntry entry = new HeapEntry(procLabels[i], vts[i], nextSeq++);
+            labelIndex.put(procLabels[i], entry);
+            if (heapify) {
+                heap[size] = entry;
+                entry.slot = size;
+            } else {
+                siftUp(entry, size);
+            }
+            size++;
+        }
+        if (heapify && size > 1) {
+            for (int slot = (size - 2) / ARITY; slot >= 0; slot--) {
+                siftDown(heap[slot], slot);
+            }
+        }
+    } // end of enqueueAll()
+
+    /**
+     * @return The number of processes in the queue.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove the entry at the slot by moving the last entry into the hole
+     */
+    private void removeAt(int slot) {
+        size--;
+        HeapEntry moved = heap[size];
+        heap[size] = null;
+        if (slot == size) {
+            return;
+        }
+        //The moved entry may need to go either up or down from the hole
+        if (slot > 0 && precedes(moved, heap[(slot - 1) / ARITY])) {
+            siftUp(moved, slot);
+        } else {
+            siftDown(moved, slot);
+        }
+    }
+
+    /**
+     * Move the entry up from the slot until its parent precedes it
+     */
+    private void siftUp(HeapEntry entry, int slot) {
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / ARITY;
+            HeapEntry parent = heap[parentSlot];
+            Probe.visit();
+            if (!precedes(entry, parent)) {
+                break;
+            }
+            heap[slot] = parent;
+            parent.slot = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = entry;
+        entry.slot = slot;
+    }
+
+    /**
+     * Move the entry down from the slot until it precedes all of its children
+     */
+    private void siftDown(HeapEntry entry, int slot) {
+        while (true) {
+            int firstChild = slot * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int minSlot = firstChild;
+            for (int i = firstChild + 1; i < lastChild; i++) {
+                if (precedes(heap[i], heap[minSlot])) {
+                    minSlot = i;
+                }
+            }
+            HeapEntry child = heap[minSlot];
+            Probe.visit(lastChild - firstChild);
+            if (!precedes(child, entry)) {
+                break;
+            }
+            heap[slot] = child;
+            child.slot = slot;
+            slot = minSlot;
+        }
+        heap[slot] = entry;
+        entry.slot = slot;
+    }
+
+    /**
+     * Order by vt first, then by the insertion sequence to keep FIFO among the same vt
+     */
+    private static boolean precedes(HeapEntry a, HeapEntry b) {
+        Probe.compare();
+        if (a.vt != b.vt) {
+            return a.vt < b.vt;
+        }
+        return a.seq < b.seq;
+    }
+
+    /**
+     * Move the slot at the root of the frontier down until it precedes its children
+     */
+    private void siftDownFrontier(int[] frontier, int frontierSize) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            if (left < frontierSize && precedes(heap[frontier[left]], heap[frontier[smallest]])) {
+                smallest = left;
+            }
+            if (left + 1 < frontierSize && precedes(heap[frontier[left + 1]], heap[frontier[smallest]])) {
+                smallest = left + 1;
+            }
+            if (smallest == i) {
+                return;
+            }
+            int swap = frontier[i];
+            frontier[i] = frontier[smallest];
+            frontier[smallest] = swap;
+            i = smallest;
+        }
+    }
+
+    /**
+     * Move the slot at index i of the frontier up until its parent precedes it
+     */
+    private void siftUpFrontier(int[] frontier, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!precedes(heap[frontier[i]], heap[frontier[parent]])) {
+                return;
+            }
+            int swap = frontier[i];
+            frontier[i] = frontier[parent];
+            frontier[parent] = swap;
+            i = parent;
+        }
+    }
+
+    /**
+     * @return The processes sorted by vt, then by insertion sequence.
+     */
+    private HeapEntry[] sortedCopy() {
+        HeapEntry[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, (a, b) -> a.vt != b.vt ? Integer.compare(a.vt, b.vt) : Long.compare(a.seq, b.seq));
+        return sorted;
+    }
+
+    private static class SortedCursor implements ProcessCursor {
+        private final HeapEntry[] sorted;
+        private int next;
+        private HeapEntry current;
+
+        SortedCursor(HeapEntry[] sorted, int from) {
+            this.sorted = sorted;
+            next = from;
+        }
+
+        @Override
+        public boolean next() {
+            if (next >= sorted.length) {
+                return false;
+            }
+            Probe.visit();
+            current = sorted[next++];
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.label;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static class HeapEntry {
+        String label;
+        int vt;
+        long seq;
+        /*
+         *   Current index of the entry in the heap array
+         */
+        int slot;
+
+        HeapEntry(String label, int vt, long seq) {
+            this.label = label;
+            this.vt = vt;
+            this.seq = seq;
+        }
+    }
+
+} // end of class HeapRQ
@@ -0,0 +1,266 @@
+package scheduler;
+
+import java.io.PrintWriter;
+import java.util.function.ObjIntConsumer;
+
+
+/**
+ * Runqueue decorator which counts, for every type of operation, the calls, their latency, and the
+ * comparisons and node visits reported through Probe by the wrapped implementation.
+ * <p>
+ * The calls and latencies are always recorded, the comparisons and visits stay 0 unless the probe is
+ * enabled with {@code -Drunqueue.probe=true}. The counts per call do not depend on the machine or its load,
+ * so they show an algorithmic regression (e.g. a PT which starts walking the whole tree) that wall-clock
+ * times would hide in noise. The statistics are not synchronized, wrap a queue used by a single thread.
+ */
+public class InstrumentedRunqueue implements Runqueue {
+    public enum Operation {
+        ENQUEUE, DEQUEUE, FIND, REMOVE, UPDATE, PT, ST, PRINT_ALL, FOR_EACH, ENQUEUE_ALL, DEQUEUE_BATCH, PEEK,
+        PEEK_TOP_K, RANGE, CURSOR, CURSOR_LABEL, CURSOR_VT
+    }
+
+    private final Runqueue delegate;
+    private final long[] calls;
+    private final long[] comparisons;
+    private final long[] visits;
+    private final LatencyHistogram[] latencies;
+
+    /**
+     * Counters of the current operation when it started
+     */
+    private long startComparisons;
+    private long startVisits;
+
+    /**
+     * Constructs the decorator of a queue
+     *
+     * @param delegate Queue which executes the operations.
+     */
+    public InstrumentedRunqueue(Runqueue delegate) {
+        this.delegate = delegate;
+        int operations = Operation.values().length;
+        calls = new long[operations];
+        comparisons = new long[operations];
+        visits = new long[operations];
+        latencies = new LatencyHistogram[operations];
+        for (int i = 0; i < operations; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    } // end of InstrumentedRunqueue()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        long start = begin();
+        delegate.enqueue(procLabel, vt);
+        end(Operation.ENQUEUE, start);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        long start = begin();
+        String deLabel = delegate.dequeue();
+        end(Operation.DEQUEUE, start);
+        return deLabel;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        long start = begin();
+        boolean found = delegate.findProcess(procLabel);
+        end(Operation.FIND, start);
+        return found;
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        long start = begin();
+        boolean removed = delegate.removeProcess(procLabel);
+        end(Operation.REMOVE, start);
+        return removed;
+    } // end of removeProcess()
+
+
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        long start = begin();
+        boolean updated = delegate.updateVruntime(procLabel, vt);
+        end(Operation.UPDATE, start);
+        return updated;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        long start = begin();
+        int time = delegate.precedingProcessTime(procLabel);
+        end(Operation.PT, start);
+        return time;
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        long start = begin();
+        int time = delegate.succeedingProcessTime(procLabel);
+        end(Operation.ST, start);
+        return time;
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public void printAllProcesses(PrintWriter os) {
+        long start = begin();
+        delegate.printAllProcesses(os);
+        end(Operation.PRINT_ALL, start);
+    } // end of printAllProcesses()
+
+
+    @Override
+    public void forEachProcess(ObjIntConsumer<String> visitor) {
+        long start = begin();
+        delegate.forEachProcess(visitor);
+        end(Operation.FOR_EACH, start);
+    } // end of forEachProcess()
+
+
+    /**
+     * Only the positioning of the cursor is counted, its steps run after this call returns.
+     */
+    @Override
+    public ProcessCursor cursor() {
+        long start = begin();
+        ProcessCursor cursor = delegate.cursor();
+        end(Operation.CURSOR, start);
+        return cursor;
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        long start = begin();
+        ProcessCursor cursor = delegate.cursor(procLabel);
+        end(Operation.CURSOR_LABEL, start);
+        return cursor;
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        long start = begin();
+        ProcessCursor cursor = delegate.cursorFromVruntime(vt);
+        end(Operation.CURSOR_VT, start);
+        return cursor;
+    } // end of cursorFromVruntime()
+
+
+    @Override
+    public String peek() {
+        long start = begin();
+        String label = delegate.peek();
+        end(Operation.PEEK, start);
+        return label;
+    } // end of peek()
+
+
+    @Override
+    public int peekTopK(int k, ObjIntConsumer<String> visitor) {
+        long start = begin();
+        int count = delegate.peekTopK(k, visitor);
+        end(Operation.PEEK_TOP_K, start);
+        return count;
+    } // end of peekTopK()
+
+
+    @Override
+    public int rangeByVruntime(int lo, int hi, ObjIntConsumer<String> visitor) {
+        long start = begin();
+        int count = delegate.rangeByVruntime(lo, hi, visitor);
+        end(Operation.RANGE, start);
+        return count;
+    } // end of rangeByVruntime()
+
+
+    @Override
+    public void enqueueAll(String[] procLabels, int[] vts, int length) {
+        long start = begin();
+        delegate.enqueueAll(procLabels, vts, length);
+        end(Operation.ENQUEUE_ALL, start);
+    } // end of enqueueAll()
+
+
+    @Override
+    public String[] dequeueBatch(int n) {
+        long start = begin();
+        String[] deLabels = delegate.dequeueBatch(n);
+        end(Operation.DEQUEUE_BATCH, start);
+        return deLabels;
+    } // end of dequeueBatch()
+
+
+    public long calls(Operation operation) {
+        return calls[operation.ordinal()];
+    }
+
+    public long comparisons(Operation operation) {
+        return comparisons[operation.ordinal()];
+    }
+
+    public long visits(Operation operation) {
+        return visits[operation.ordinal()];
+    }
+
+    /**
+     * @return Latency in nanoseconds of every call of the operation.
+     */
+    public LatencyHistogram latency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /**
+     * Print one line per operation which was called, with the mean and tail latency in nanoseconds and the
+     * mean comparisons and visits per call.
+     *
+     * @param os Where to print the report.
+     */
+    public void report(PrintWriter os) {
+        os.printf("%-14s %10s %10s %10s %10s %14s %14s%n",
+                "operation", "calls", "mean(ns)", "p99(ns)", "max(ns)", "comparisons", "visits");
+        for (Operation operation : Operation.values()) {
+            int i = operation.ordinal();
+            if (calls[i] == 0) {
+                continue;
+            }
+            LatencyHistogram latency = latencies[i];
+            os.printf("%-14s %10d %10.0f %10d %10d %14.1f %14.1f%n", operation, calls[i], latency.mean(),
+                    latency.valueAtPercentile(99), latency.max(), (double) comparisons[i] / calls[i],
+                    (double) visits[i] / calls[i]);
+        }
+        os.flush();
+    }
+
+    private long begin() {
+        if (Probe.ENABLED) {
+            Probe.Counters counters = Probe.counters();
+            startComparisons = counters.comparisons();
+            startVisits = counters.visits();
+        }
+        return System.nanoTime();
+    }
+
+    private void end(Operation operation, long start) {
+        long elapsed = System.nanoTime() - start;
+        int i = operation.ordinal();
+        calls[i]++;
+        latencies[i].record(elapsed);
+        if (Probe.ENABLED) {
+            Probe.Counters counters = Probe.counters();
+            comparisons[i] += counters.comparisons() - startComparisons;
+            visits[i] += counters.visits() - startVisits;
+        }
+    }
+
+} // end of class InstrumentedRunqueue
@@ -0,0 +1,216 @@
+package scheduler;
+
+/**
+ * Hash index from a process label to the node that holds the process inside a Runqueue.
+ * <p>
+ * Open addressing with linear probing over flat arrays, the hash of every label is cached next to it so
+ * most of the mismatching probes never call String.equals. Deletion shifts the following entries back
+ * instead of leaving tombstones, so the probe sequences stay short under heavy enqueue/dequeue churn.
+ * <p>
+ * The index does not know the ordering structure, every Runqueue keeps it consistent by calling
+ * put/remove whenever a process is enqueued, dequeued or removed.
+ *
+ * @param <N> Node type of the owning Runqueue.
+ */
+public class LabelIndex<N> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Grow the table once it is more than half full
+     */
+    private static final int LOAD_FACTOR_SHIFT = 1;
+
+    private String[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int mask;
+    private int size;
+
+    /**
+     * Constructs empty index
+     */
+    public LabelIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param label Process label to look up.
+     *
+     * @return The node of the process, or null if the label is not indexed.
+     */
+    @SuppressWarnings("unchecked")
+    public N get(String label) {
+        int slot = findSlot(label, hash(label));
+        return slot == -1 ? null : (N) values[slot];
+    }
+
+    /**
+     * @param label Process label to look up.
+     *
+     * @return True if the label is indexed.
+     */
+    public boolean containsKey(String label) {
+        return findSlot(label, hash(label)) != -1;
+    }
+
+    /**
+     * Index the node under the label, replacing any previous node of the same label.
+     *
+     * @param label Process label.
+     * @param node Node holding the process.
+     *
+     * @return The previous node of the label, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public N put(String label, N node) {
+        int h = hash(label);
+        int slot = h & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == h && keys[slot].equals(label)) {
+                N previous = (N) values[slot];
+                values[slot] = node;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = label;
+        values[slot] = node;
+        hashes[slot] = h;
+        size++;
+        if (size > (keys.length >> LOAD_FACTOR_SHIFT)) {
+            grow();
+        }
+        return null;
+    }
+
+    /**
+     * Drop the label from the index.
+     *
+     * @param label Process label.
+     *
+     * @return The node of the label, or null if the label is not indexed.
+     */
+    @SuppressWarnings("unchecked")
+    public N remove(String label) {
+        int slot = findSlot(label, hash(label));
+        if (slot == -1) {
+            return null;
+        }
+        N removed = (N) values[slot];
+        //Shift back the following entries of the cluster which cannot be reached anymore through the hole
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            if (!reachable(hashes[next] & mask, hole, next)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hashes[hole] = hashes[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * @return The number of indexed labels.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Grow the table once ahead of a bulk load, so that adding up to the given number of labels does not
+     * re-insert the existing entries over and over.
+     *
+     * @param expectedSize Number of labels the index will hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        if (expectedSize > (keys.length >> LOAD_FACTOR_SHIFT)) {
+            int capacity = keys.length;
+            while (expectedSize > (capacity >> LOAD_FACTOR_SHIFT) && capacity < (1 << 30)) {
+                capacity <<= 1;
+            }
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * Remove every label from the index.
+     */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private int findSlot(String label, int h) {
+        int slot = h & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == h && keys[slot].equals(label)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * Double the table and re-insert the existing entries
+     */
+    private void grow() {
+        rehash(keys.length << 1);
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldSize = size;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+        size = oldSize;
+    }
+
+    /**
+     * Spread the String hash so that labels like P1, P2, P3 do not fill a single cluster, shared with the
+     * LabelInterner table
+     */
+    static int hash(String label) {
+        int h = label.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Backward-shift deletion check of a linear probing table.
+     *
+     * @param home Slot the entry hashes to.
+     * @param hole Empty slot left by the deletion.
+     * @param next Slot of the entry, after the hole in the same cluster.
+     *
+     * @return True if a probe from home still reaches next without crossing the hole, so the entry can stay.
+     */
+    static boolean reachable(int home, int hole, int next) {
+        return hole <= next ? (home > hole && home <= next) : (home > hole || home <= next);
+    }
+
+} // end of class LabelIndex
@@ -0,0 +1,193 @@
+package scheduler;
+
+/**
+ * Interns process labels into dense int ids.
+ * <p>
+ * Every live label gets an id in [1, capacity()), id 0 is never handed out so that the owning Runqueue can
+ * use it as its null link. The ids of released labels are recycled through a free list, and the lookup
+ * table is an open-addressing table of ids backed by flat int arrays, so once the tables have grown to the
+ * working set size interning and releasing labels does not allocate.
+ */
+public class LabelInterner {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Label and label hash of every id
+     */
+    private String[] labels;
+    private int[] hashes;
+
+    /**
+     * Next id in the free list of every released id, 0 ends the list
+     */
+    private int[] nextFree;
+    private int freeHead;
+
+    /**
+     * Next id which has never been handed out
+     */
+    private int highWater;
+
+    /**
+     * Open-addressing table of ids, 0 is an empty slot
+     */
+    private int[] table;
+    private int mask;
+    private int count;
+
+    /**
+     * Constructs empty interner
+     */
+    public LabelInterner() {
+        labels = new String[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        nextFree = new int[INITIAL_CAPACITY];
+        freeHead = 0;
+        highWater = 1;
+        table = new int[INITIAL_CAPACITY << 1];
+        mask = table.length - 1;
+        count = 0;
+    }
+
+    /**
+     * @param label Process label to look up.
+     *
+     * @return The id of the label, or 0 if the label is not interned.
+     */
+    public int idOf(String label) {
+        int h = LabelIndex.hash(label);
+        int slot = h & mask;
+        int id;
+        while ((id = table[slot]) != 0) {
+            if (hashes[id] == h && labels[id].equals(label)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Hand out an id for a label which is not interned yet.
+     *
+     * @param label Process label.
+     *
+     * @return The new id of the label.
+     */
+    public int intern(String label) {
+        int id;
+        if (freeHead != 0) {
+            id = freeHead;
+            freeHead = nextFree[id];
+        } else {
+            if (highWater == labels.length) {
+                growIds();
+            }
+            id = highWater++;
+        }
+        int h = LabelIndex.hash(label);
+        labels[id] = label;
+        hashes[id] = h;
+        nextFree[id] = 0;
+        if (++count > (table.length >> 1)) {
+            growTable();
+        } else {
+            insert(id);
+        }
+        return id;
+    }
+
+    /**
+     * Drop the label of the id and put the id back in the free list.
+     *
+     * @param id Id returned by intern.
+     */
+    public void release(int id) {
+        int slot = hashes[id] & mask;
+        while (table[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        //Backward-shift deletion, like LabelIndex.remove
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        int moved;
+        while ((moved = table[next]) != 0) {
+            if (!LabelIndex.reachable(hashes[moved] & mask, hole, next)) {
+                table[hole] = moved;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+        labels[id] = null;
+        nextFree[id] = freeHead;
+        freeHead = id;
+        count--;
+    }
+
+    /**
+     * @param id Id returned by intern.
+     *
+     * @return The label of the id.
+     */
+    public String label(int id) {
+        return labels[id];
+    }
+
+    /**
+     * @return Upper bound (exclusive) of the ids handed out so far, per-id arrays of the owner must be this long.
+     */
+    public int capacity() {
+        return labels.length;
+    }
+
+    /**
+     * @return The number of interned labels.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return Bytes used by the interner tables, not counting the label strings themselves.
+     */
+    public long footprintBytes() {
+        //One reference and two ints per id, one int per table slot
+        return (long) labels.length * (8 + 4 + 4) + (long) table.length * 4;
+    }
+
+    private void insert(int id) {
+        int slot = hashes[id] & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id;
+    }
+
+    private void growIds() {
+        int capacity = labels.length << 1;
+        String[] newLabels = new String[capacity];
+        int[] newHashes = new int[capacity];
+        int[] newNextFree = new int[capacity];
+        System.arraycopy(labels, 0, newLabels, 0, labels.length);
+        System.arraycopy(hashes, 0, newHashes, 0, hashes.length);
+        System.arraycopy(nextFree, 0, newNextFree, 0, nextFree.length);
+        labels = newLabels;
+        hashes = newHashes;
+        nextFree = newNextFree;
+    }
+
+    /**
+     * Double the table and re-insert every live id, the newest id included
+     */
+    private void growTable() {
+        table = new int[table.length << 1];
+        mask = table.length - 1;
+        for (int id = 1; id < highWater; id++) {
+            if (labels[id] != null) {
+                insert(id);
+            }
+        }
+    }
+
+} // end of class LabelInterner
@@ -0,0 +1,148 @@
+package scheduler;
+
+import java.util.Arrays;
+
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets, in the style of HdrHistogram.
+ * <p>
+ * Every power of two range [2^k, 2^(k+1)) is split into {@value #SUB_BUCKETS} linear sub-buckets, so a
+ * recorded value is known within 1/{@value #SUB_BUCKETS} of itself whatever its magnitude, and values below
+ * 2 * {@value #SUB_BUCKETS} are exact. The counts array only grows up to the bucket of the largest value
+ * recorded, a histogram of latencies under a millisecond takes around 10 KB.
+ * <p>
+ * Not thread-safe, give every thread its own histogram and add them together at the end.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /**
+     * Number of sub-buckets of one power of two range
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private long[] counts;
+    private long totalCount;
+    private long min;
+    private long max;
+    private long sum;
+
+    /**
+     * Constructs empty histogram
+     */
+    public LatencyHistogram() {
+        counts = new long[2 * SUB_BUCKETS];
+        min = Long.MAX_VALUE;
+        max = 0L;
+    } // end of LatencyHistogram()
+
+
+    /**
+     * @param value Latency in nanoseconds, non-negative.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("latency must be non-negative.");
+        }
+        int index = indexOf(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + (counts.length >> 1)));
+        }
+        counts[index]++;
+        totalCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add every value recorded by the other histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    /**
+     * @return Smallest recorded value, 0 if empty.
+     */
+    public long min() {
+        return totalCount == 0 ? 0L : min;
+    }
+
+    /**
+     * @return Largest recorded value, 0 if empty.
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return Exact mean of the recorded values, 0 if empty.
+     */
+    public double mean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    /**
+     * @param percentile Percentile in [0, 100].
+     *
+     * @return The largest value of the bucket holding the percentile, so the result is never below the
+     * recorded value, and never above the max. 0 if empty.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100].");
+        }
+        if (totalCount == 0) {
+            return 0L;
+        }
+        //Rank of the value, at least the first one
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Values below 2 * SUB_BUCKETS have their own bucket, a larger value is shifted right until it has
+     * SUB_BUCKET_BITS + 1 bits, and the shift picks the group of SUB_BUCKETS buckets it falls in.
+     */
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * @return The largest value stored in the bucket.
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+} // end of class LatencyHistogram
@@ -0,0 +1,146 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Test of the bucket and percentile math of LatencyHistogram against the exact nearest-rank percentiles of
+ * the recorded values.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LatencyHistogramEval {
+    private static final double[] PERCENTILES = {0, 1, 25, 50, 90, 99, 99.9, 99.99, 100};
+
+    @Order(1)
+    @DisplayName("Values below 2 * SUB_BUCKETS are exact")
+    @Test
+    void exactSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 100; value >= 1; value--) {
+            histogram.record(value);
+        }
+        assertEquals(1, histogram.valueAtPercentile(0));
+        assertEquals(1, histogram.valueAtPercentile(1));
+        assertEquals(50, histogram.valueAtPercentile(50));
+        assertEquals(90, histogram.valueAtPercentile(90));
+        assertEquals(99, histogram.valueAtPercentile(99));
+        //Rank ceil(99.9) is the 100th value
+        assertEquals(100, histogram.valueAtPercentile(99.9));
+        assertEquals(100, histogram.valueAtPercentile(100));
+        assertEquals(100, histogram.count());
+        assertEquals(1, histogram.min());
+        assertEquals(100, histogram.max());
+        assertEquals(50.5, histogram.mean(), 1e-9);
+    }
+
+    @Order(2)
+    @DisplayName("Every bucket holds the values from the end of the previous bucket to its highest value")
+    @Test
+    void bucketBounds() {
+        long[] values = new long[62 * 5];
+        int count = 0;
+        //Both sides of every power of two and of the sub-bucket edges next to it
+        for (int bit = 1; bit < 62; bit++) {
+            long power = 1L << bit;
+            for (long value : new long[]{power - 1, power, power + 1, power + (power >> 6), power + (power >> 6) - 1}) {
+                values[count++] = value;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            long value = values[i];
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertTrue(highest >= value, value + " above its bucket " + highest);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value,
+                    value + " belongs to the bucket before " + index);
+            //The bucket is never wider than 1 / SUB_BUCKETS of its values
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS,
+                    value + " in a bucket up to " + highest);
+            assertEquals(index, LatencyHistogram.indexOf(highest), "Highest value of bucket " + index);
+        }
+    }
+
+    @Order(3)
+    @DisplayName("Percentiles are within 1/SUB_BUCKETS above the exact nearest-rank value and never above the max")
+    @Test
+    void percentilesAgainstSortedValues() {
+        Random random = new Random(18);
+        for (int run = 0; run < 20; run++) {
+            int size = 1 + random.nextInt(5000);
+            long[] values = new long[size];
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < size; i++) {
+                //Log-uniform from 1 ns up to about 1 s, with a few large outliers
+                values[i] = (long) Math.exp(random.nextDouble() * (random.nextInt(50) == 0 ? 30 : 14));
+                histogram.record(values[i]);
+            }
+            long[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (double percentile : PERCENTILES) {
+                int rank = (int) Math.max(1L, (long) Math.ceil(percentile / 100.0 * size));
+                long exact = sorted[rank - 1];
+                long reported = histogram.valueAtPercentile(percentile);
+                String at = "run " + run + " p" + percentile;
+                assertTrue(reported >= exact, at + ": " + reported + " below " + exact);
+                assertTrue(reported <= exact + exact / LatencyHistogram.SUB_BUCKETS, at + ": " + reported
+                        + " too far above " + exact);
+                assertTrue(reported <= sorted[size - 1], at);
+            }
+            assertEquals(sorted[0], histogram.min());
+            assertEquals(sorted[size - 1], histogram.max());
+            assertEquals(sorted[size - 1], histogram.valueAtPercentile(100));
+        }
+    }
+
+    @Order(4)
+    @DisplayName("add gives the same histogram as recording every value into one")
+    @Test
+    void add() {
+        Random random = new Random(7);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram small = new LatencyHistogram();
+        LatencyHistogram large = new LatencyHistogram();
+        for (int i = 0; i < 1000; i++) {
+            long value = random.nextInt(100);
+            all.record(value);
+            small.record(value);
+            value = 1000000L + random.nextInt(1000000000);
+            all.record(value);
+            large.record(value);
+        }
+        //The smaller histogram grows its counts to the other one
+        small.add(large);
+        assertEquals(all.count(), small.count());
+        assertEquals(all.min(), small.min());
+        assertEquals(all.max(), small.max());
+        assertEquals(all.mean(), small.mean(), 1e-9);
+        for (double percentile : PERCENTILES) {
+            assertEquals(all.valueAtPercentile(percentile), small.valueAtPercentile(percentile), "p" + percentile);
+        }
+    }
+
+    @Order(5)
+    @DisplayName("An empty histogram reports 0, a negative value or percentile is rejected")
+    @Test
+    void emptyAndInvalid() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(50));
+        assertEquals(0, histogram.min());
+        assertEquals(0, histogram.max());
+        assertEquals(0.0, histogram.mean());
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(100.1));
+        histogram.record(0);
+        assertEquals(0, histogram.valueAtPercentile(100));
+        assertEquals(1, histogram.count());
+    }
+}
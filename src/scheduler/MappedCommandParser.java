@@ -0,0 +1,386 @@
+package scheduler;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Fast input path of RunqueueTester, which memory-maps the command file and decodes the commands straight
+ * from the mapped bytes.
+ * <p>
+ * Every line is split into fields on single spaces exactly like String.split(" "), the command is matched
+ * case-insensitively on its ASCII bytes and the vt is parsed without building a String. Labels go through a
+ * direct-mapped cache keyed by their bytes, so a label seen recently costs no allocation. A line holding a
+ * non-ASCII byte is decoded with the default charset and handed to RunqueueTester.processLine, and a vt
+ * that does not parse is handed to Integer.parseInt for its exception, so the output and the error messages
+ * stay identical to RunqueueTester.processOperations.
+ */
+public class MappedCommandParser {
+    /**
+     * Size of the mapped window, a line must fit in one window
+     */
+    private static final int WINDOW_BYTES = 1 << 28;
+
+    private static final int LABEL_CACHE_SIZE = 1 << 16;
+
+    /*
+     *   Command codes
+     */
+    private static final int UNKNOWN = 0;
+    private static final int EN = 1;
+    private static final int DE = 2;
+    private static final int FP = 3;
+    private static final int RP = 4;
+    private static final int PT = 5;
+    private static final int ST = 6;
+    private static final int PA = 7;
+    private static final int Q = 8;
+
+    private final Runqueue queue;
+    private final PrintWriter processOutWriter;
+    private final Charset charset;
+
+    private MappedByteBuffer buffer;
+    private int lineNum;
+    private boolean bQuit;
+
+    /**
+     * Fields of the current line, only the first three are kept, which is all any command reads
+     */
+    private int tokenCount;
+    private final int[] tokenStart;
+    private final int[] tokenEnd;
+
+    private final String[] labelCache;
+    private byte[] scratch;
+
+    // consecutive enqueue commands are collected and added with a single enqueueAll call
+    private final EnqueueBatch batch;
+
+    private MappedCommandParser(Runqueue queue, PrintWriter processOutWriter) {
+        this.queue = queue;
+        this.processOutWriter = processOutWriter;
+        charset = Charset.defaultCharset();
+        lineNum = 1;
+        tokenStart = new int[3];
+        tokenEnd = new int[3];
+        labelCache = new String[LABEL_CACHE_SIZE];
+        scratch = new byte[64];
+        batch = new EnqueueBatch();
+    }
+
+
+    /**
+     * Process the operation commands of the file, and updates the process queue according to the operations.
+     *
+     * @param channel Channel of the command file, read from its start.
+     * @param queue The queue structure which the operations are executed on.
+     * @param processOutWriter Where to send the results of running the commands.
+     *
+     * @throws IOException Thrown if there is an I/O based exception.
+     */
+    public static void processOperations(FileChannel channel, Runqueue queue, PrintWriter processOutWriter)
+        throws IOException
+    {
+        new MappedCommandParser(queue, processOutWriter).run(channel);
+    } // end of processOperations()
+
+
+    private void run(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0L;
+        while (!bQuit && position < size) {
+            int length = (int) Math.min(WINDOW_BYTES, size - position);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int consumed = processWindow(length, position + length == size);
+            if (consumed == 0 && !bQuit) {
+                throw new IOException(lineNum + ": line does not fit in the mapped window.");
+            }
+            position += consumed;
+        }
+        batch.flush(queue);
+        // quit or end of input, push out whatever is still buffered
+        processOutWriter.flush();
+    }
+
+    /**
+     * Process the complete lines of the window.
+     *
+     * @return Number of bytes consumed, the next window starts at the first incomplete line.
+     */
+    private int processWindow(int length, boolean lastWindow) {
+        int lineStart = 0;
+        while (!bQuit && lineStart < length) {
+            //Split the line into fields while looking for its end
+            int fields = 0;
+            int fieldStart = lineStart;
+            int lastNonEmpty = -1;
+            boolean ascii = true;
+            int p = lineStart;
+            byte b = 0;
+            while (p < length) {
+                b = buffer.get(p);
+                if (b == '\n' || b == '\r') {
+                    break;
+                }
+                if (b == ' ') {
+                    lastNonEmpty = closeField(fields, fieldStart, p, lastNonEmpty);
+                    fields++;
+                    fieldStart = p + 1;
+                } else if (b < 0) {
+                    ascii = false;
+                }
+                p++;
+            }
+            int next = p + 1;
+            if (p == length) {
+                //No line terminator, only the end of the file completes the line
+                if (!lastWindow) {
+                    return lineStart;
+                }
+            } else if (b == '\r') {
+                //A '\r' right at the window end may be the first half of "\r\n"
+                if (next == length && !lastWindow) {
+                    return lineStart;
+                }
+                if (next < length && buffer.get(next) == '\n') {
+                    next++;
+                }
+            }
+            if (ascii) {
+                lastNonEmpty = closeField(fields, fieldStart, p, lastNonEmpty);
+                //String.split drops the trailing empty fields, but an empty line is one empty field
+                tokenCount = p == lineStart ? 1 : lastNonEmpty + 1;
+                processCommand();
+            } else {
+                bQuit = RunqueueTester.processLine(decode(lineStart, p), lineNum, queue, processOutWriter, batch);
+                lineNum++;
+            }
+            lineStart = next;
+        }
+        return Math.min(lineStart, length);
+    }
+
+    private int closeField(int field, int start, int end, int lastNonEmpty) {
+        if (field < tokenStart.length) {
+            tokenStart[field] = start;
+            tokenEnd[field] = end;
+        }
+        return end > start ? field : lastNonEmpty;
+    }
+
+    /**
+     * Same operations and messages as RunqueueTester.processOperations, on the fields of the current line
+     */
+    private void processCommand() {
+        // check if there is at least an operation command
+        if (tokenCount < 1) {
+            System.err.println(lineNum + ": not enough tokens.");
+            lineNum++;
+            return;
+        }
+
+        int command = command();
+
+        // every other command may depend on the pending processes, add them first
+        if (command != EN) {
+            batch.flush(queue);
+        }
+
+        try {
+            // determine which operation to execute
+            switch (command) {
+                // add process to queue
+                case EN:
+                    if (tokenCount == 3) {
+                        int vt = parseVt();
+                        if (vt < 0) {
+                            System.err.println(lineNum + ": process run time must be non-negative.");
+                        }
+                        else {
+                            batch.add(label(), vt);
+                        }
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+                    break;
+                // remove highest priority process from the queue
+                case DE:
+                    if (tokenCount == 1) {
+                        processOutWriter.println(queue.dequeue());
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+                    break;
+                // find process
+                case FP:
+                    if (tokenCount == 2) {
+                        processOutWriter.println(queue.findProcess(label()));
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+                    break;
+                // remove process from queue
+                case RP:
+                    if (tokenCount == 2) {
+                        processOutWriter.println(queue.removeProcess(label()));
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+                    break;
+                // calculate preceding processes vt
+                case PT:
+                    if (tokenCount == 2) {
+                        processOutWriter.println(queue.precedingProcessTime(label()));
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+                    break;
+                // calculate succeeding processes vt
+                case ST:
+                    if (tokenCount == 2) {
+                        processOutWriter.println(queue.succeedingProcessTime(label()));
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+                    break;
+                // print all processes
+                case PA:
+                    queue.printAllProcesses(processOutWriter);
+                    break;
+                // quit
+                case Q:
+                    bQuit = true;
+                    break;
+                default:
+                    System.err.println(lineNum + ": Unknown command.");
+            } // end of switch
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        } // end of try-catch block
+
+        lineNum++;
+    }
+
+    private int command() {
+        int start = tokenStart[0];
+        int length = tokenEnd[0] - start;
+        if (length == 1) {
+            return upper(start) == 'Q' ? Q : UNKNOWN;
+        }
+        if (length != 2) {
+            return UNKNOWN;
+        }
+        int first = upper(start);
+        int second = upper(start + 1);
+        if (first == 'E' && second == 'N') {
+            return EN;
+        } else if (first == 'D' && second == 'E') {
+            return DE;
+        } else if (first == 'F' && second == 'P') {
+            return FP;
+        } else if (first == 'R' && second == 'P') {
+            return RP;
+        } else if (first == 'P' && second == 'T') {
+            return PT;
+        } else if (first == 'S' && second == 'T') {
+            return ST;
+        } else if (first == 'P' && second == 'A') {
+            return PA;
+        }
+        return UNKNOWN;
+    }
+
+    private int upper(int index) {
+        int b = buffer.get(index);
+        return b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b;
+    }
+
+    /**
+     * Parse the third field like Integer.parseInt, which is only called to throw the same exception
+     */
+    private int parseVt() {
+        int start = tokenStart[2];
+        int end = tokenEnd[2];
+        boolean negative = false;
+        if (start < end && (buffer.get(start) == '-' || buffer.get(start) == '+')) {
+            negative = buffer.get(start) == '-';
+            start++;
+        }
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0L;
+        boolean valid = start < end;
+        for (int i = start; valid && i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            value = value * 10 + digit;
+            valid = digit >= 0 && digit <= 9 && value <= limit;
+        }
+        if (!valid) {
+            return Integer.parseInt(new String(copy(tokenStart[2], end), 0, end - tokenStart[2],
+                    StandardCharsets.ISO_8859_1));
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Second field as a String, taken from the label cache when the same bytes were seen recently
+     */
+    private String label() {
+        int start = tokenStart[1];
+        int end = tokenEnd[1];
+        //Same hash as String.hashCode on ASCII
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (LABEL_CACHE_SIZE - 1);
+        String cached = labelCache[slot];
+        if (cached != null && cached.hashCode() == hash && sameBytes(cached, start, end)) {
+            return cached;
+        }
+        String label = new String(copy(start, end), 0, end - start, StandardCharsets.ISO_8859_1);
+        labelCache[slot] = label;
+        return label;
+    }
+
+    private boolean sameBytes(String label, int start, int end) {
+        if (label.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (label.charAt(i - start) != buffer.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int start, int end) {
+        return new String(copy(start, end), 0, end - start, charset);
+    }
+
+    /**
+     * Copy the mapped bytes into the reused scratch array
+     */
+    private byte[] copy(int start, int end) {
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length << 1)];
+        }
+        for (int i = start; i < end; i++) {
+            scratch[i - start] = buffer.get(i);
+        }
+        return scratch;
+    }
+
+} // end of class MappedCommandParser
@@ -0,0 +1,140 @@
+package scheduler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Implementation of the Runqueue interface using an AVL Tree whose node records live outside the Java heap.
+ * <p>
+ * The node record of the process with interned id i is the fixed size record at offset i * RECORD_BYTES of a
+ * direct ByteBuffer arena. The garbage collector never scans or moves the arena, only the label strings and
+ * the interner tables stay on the heap. The arena starts with the requested number of records and is
+ * replaced by one twice as large when it runs out, the old arena being released with its buffer.
+ */
+public class OffHeapRQ extends SlotTreeRQ {
+    /*
+     *   Layout of a node record
+     */
+    private static final int VT = 0;
+    private static final int LEFT = 4;
+    private static final int RIGHT = 8;
+    private static final int HEIGHT = 12;
+    private static final int SEQ = 16;
+    private static final int SUM = 24;
+    public static final int RECORD_BYTES = 32;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Direct memory arena of node records, record 0 is the NIL record and stays zeroed
+     */
+    private ByteBuffer arena;
+    private int capacity;
+
+    /**
+     * Constructs empty queue with the default arena capacity
+     */
+    public OffHeapRQ() {
+        this(DEFAULT_CAPACITY);
+    }  // end of OffHeapRQ()
+
+    /**
+     * Constructs empty queue
+     *
+     * @param initialCapacity Number of processes the arena holds before it has to grow.
+     */
+    public OffHeapRQ(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive.");
+        }
+        //One more record for NIL
+        growSlots(initialCapacity + 1);
+    }  // end of OffHeapRQ()
+
+    /**
+     * @return Bytes of direct memory reserved by the arena.
+     */
+    public long offHeapBytes() {
+        return (long) capacity * RECORD_BYTES;
+    }
+
+    @Override
+    protected int slotCapacity() {
+        return capacity;
+    }
+
+    @Override
+    protected void growSlots(int minCapacity) {
+        int newCapacity = Math.max(minCapacity, capacity << 1);
+        if ((long) newCapacity * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap arena cannot hold " + newCapacity + " processes.");
+        }
+        ByteBuffer newArena = ByteBuffer.allocateDirect(newCapacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        if (arena != null) {
+            arena.clear();
+            newArena.put(arena);
+            newArena.clear();
+        }
+        arena = newArena;
+        capacity = newCapacity;
+    }
+
+    @Override
+    protected void initSlot(int id, int vt, long seq) {
+        int base = id * RECORD_BYTES;
+        arena.putInt(base + VT, vt);
+        arena.putInt(base + LEFT, NIL);
+        arena.putInt(base + RIGHT, NIL);
+        arena.putInt(base + HEIGHT, 1);
+        arena.putLong(base + SEQ, seq);
+        arena.putLong(base + SUM, vt);
+    }
+
+    @Override
+    protected int vt(int id) {
+        return arena.getInt(id * RECORD_BYTES + VT);
+    }
+
+    @Override
+    protected long seq(int id) {
+        return arena.getLong(id * RECORD_BYTES + SEQ);
+    }
+
+    @Override
+    protected int left(int id) {
+        return arena.getInt(id * RECORD_BYTES + LEFT);
+    }
+
+    @Override
+    protected void setLeft(int id, int left) {
+        arena.putInt(id * RECORD_BYTES + LEFT, left);
+    }
+
+    @Override
+    protected int right(int id) {
+        return arena.getInt(id * RECORD_BYTES + RIGHT);
+    }
+
+    @Override
+    protected void setRight(int id, int right) {
+        arena.putInt(id * RECORD_BYTES + RIGHT, right);
+    }
+
+    @Override
+    protected int height(int id) {
+        return arena.getInt(id * RECORD_BYTES + HEIGHT);
+    }
+
+    @Override
+    protected long sum(int id) {
+        return arena.getLong(id * RECORD_BYTES + SUM);
+    }
+
+    @Override
+    protected void setAugment(int id, int height, long sum) {
+        int base = id * RECORD_BYTES;
+        arena.putInt(base + HEIGHT, height);
+        arena.putLong(base + SUM, sum);
+    }
+
+} // end of class OffHeapRQ
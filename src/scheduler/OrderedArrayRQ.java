@@ -0,0 +1,400 @@
+package scheduler;
+
+import java.util.Arrays;
+
+
+/**
+ * Implementation of the Runqueue interface using an Ordered Array.
+ * <p>
+ * The live processes occupy the window [head, tail) of the backing array. Dequeue only advances the
+ * head index, and enqueue finds its slot by binary search then shifts the shorter side of the window
+ * with System.arraycopy, using the free slots in front of head when there are any. When the shorter side
+ * is after tail at the end of the array, the window is slid back to the start once, or the array grows,
+ * so that appends stay amortized O(1).
+ * A label index gives the process of a label in O(1), and its slot is then found by binary search.
+ *
+ * @author Sajal Halder, Minyi Li, Jeffrey Chan
+ */
+public class OrderedArrayRQ implements Runqueue {
+    private static final int INITIAL_CAPACITY = 10;
+
+    private Proc[] procs;
+
+    /**
+     * Index of the first process in the queue
+     */
+    private int head;
+
+    /**
+     * Index after the last process in the queue
+     */
+    private int tail;
+
+    private final LabelIndex<Proc> labelIndex;
+
+    /**
+     * Insertion counter, the processes with the same vt are stored in increasing seq order
+     */
+    private long nextSeq;
+
+    /**
+     * Constructs empty queue
+     */
+    public OrderedArrayRQ() {
+        procs = new Proc[INITIAL_CAPACITY];
+        head = 0;
+        tail = 0;
+        labelIndex = new LabelIndex<>();
+        nextSeq = 0L;
+    }  // end of OrderedArrayRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (findProcess(procLabel)) {
+            return;
+        }
+        int insertIndex = upperBound(vt);
+        boolean backward = head == 0 || insertIndex - head >= tail - insertIndex;
+        if (backward && tail == procs.length) {
+            //No free slot after tail, make room there once instead of shifting the whole window forward
+            //for every append: slide the window to the front when head left enough room, otherwise grow
+            int offset = head;
+            if (head > 0 && head >= (tail - head) / 2) {
+                compact();
+            } else {
+                expandArray();
+            }
+            insertIndex -= offset;
+        }
+        if (backward) {
+            //Move the succeeding processes backward
+            Probe.visit(tail - insertIndex);
+            System.arraycopy(procs, insertIndex, procs, insertIndex + 1, tail - insertIndex);
+            tail++;
+        } else {
+            //Move the preceding processes forward into the free slot before head
+            Probe.visit(insertIndex - head);
+            System.arraycopy(procs, head, procs, head - 1, insertIndex - head);
+            head--;
+            insertIndex--;
+        }
+        Proc proc = new Proc(procLabel, vt, nextSeq++);
+        procs[insertIndex] = proc;
+        labelIndex.put(procLabel, proc);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        if (isEmpty()) {
+            return "";
+        }
+        String deLabel = procs[head].label;
+        labelIndex.remove(deLabel);
+        procs[head] = null;
+        head++;
+        if (head == tail) {
+            //Reuse the whole array once the queue is drained
+            head = 0;
+            tail = 0;
+        }
+        return deLabel;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        int procIndex = findByLabel(procLabel);
+        if (procIndex != -1) {
+            labelIndex.remove(procLabel);
+            //Close the gap from the shorter side
+            if (procIndex - head < tail - procIndex - 1) {
+                Probe.visit(procIndex - head);
+                System.arraycopy(procs, head, procs, head + 1, procIndex - head);
+                procs[head] = null;
+                head++;
+            } else {
+                Probe.visit(tail - procIndex - 1);
+                System.arraycopy(procs, procIndex + 1, procs, procIndex, tail - procIndex - 1);
+                tail--;
+                procs[tail] = null;
+            }
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            return true;
+        }
+        return false;
+    } // end of removeProcess()
+
+
+    /**
+     * Shift the processes between the old and the new slot by one and put the same Proc in the new slot.
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        int procIndex = findByLabel(procLabel);
+        if (procIndex == -1) {
+            return false;
+        }
+        Proc proc = procs[procIndex];
+        //The process itself is before the upper bound of a larger or equal vt, and after the one of a smaller vt
+        int newIndex = upperBound(vt);
+        if (newIndex > procIndex) {
+            newIndex--;
+            Probe.visit(newIndex - procIndex);
+            System.arraycopy(procs, procIndex + 1, procs, procIndex, newIndex - procIndex);
+        } else {
+            Probe.visit(procIndex - newIndex);
+            System.arraycopy(procs, newIndex, procs, newIndex + 1, procIndex - newIndex);
+        }
+        proc.vt = vt;
+        proc.seq = nextSeq++;
+        procs[newIndex] = proc;
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        int procIndex = findByLabel(procLabel);
+        if (procIndex != -1) {
+            int sum = 0;
+            Probe.visit(procIndex - head);
+            for (int i = head; i < procIndex; i++) {
+                sum += procs[i].vt;
+            }
+            return sum;
+        }
+        return -1;
+    }// end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        int procIndex = findByLabel(procLabel);
+        if (procIndex != -1) {
+            int sum = 0;
+            Probe.visit(tail - procIndex - 1);
+            for (int i = procIndex + 1; i < tail; i++) {
+                sum += procs[i].vt;
+            }
+            return sum;
+        }
+        return -1;
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        return new ArrayCursor(head);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        int procIndex = findByLabel(procLabel);
+        return procIndex == -1 ? ProcessCursor.EMPTY : new ArrayCursor(procIndex);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        return new ArrayCursor(vt == Integer.MIN_VALUE ? head : upperBound(vt - 1));
+    } // end of cursorFromVruntime()
+
+    /**
+     * Sort the new processes once, then merge them with the queue from the back in a single pass.
+     */
+    @Override
+    public void enqueueAll(String[] procLabels, int[] vts, int length) {
+        if (length < 0 || length > procLabels.length || length > vts.length) {
+            throw new IllegalArgumentException("length must be within the length of procLabels and vts.");
+        }
+        labelIndex.ensureCapacity(labelIndex.size() + length);
+        //Skip the labels already in the queue or earlier in the batch, like repeated enqueue would
+        Proc[] batch = new Proc[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!labelIndex.containsKey(procLabels[i])) {
+                Proc proc = new Proc(procLabels[i], vts[i], nextSeq++);
+                labelIndex.put(procLabels[i], proc);
+                batch[count++] = proc;
+            }
+        }
+        //The sort is stable, so the batch keeps its array order among the same vt
+        Arrays.sort(batch, 0, count, (a, b) -> Integer.compare(a.vt, b.vt));
+
+        int size = tail - head;
+        Proc[] target = procs;
+        int start = head;
+        if (tail + count > procs.length) {
+            target = new Proc[Math.max(size + count, (int) (procs.length * 1.5) + 1)];
+            start = 0;
+        }
+        //Fill from the back, in place the write index never passes the unread processes
+        int read = tail - 1;
+        int write = start + size + count - 1;
+        int next = count - 1;
+        while (next >= 0) {
+            if (read >= head && procs[read].vt > batch[next].vt) {
+                target[write--] = procs[read--];
+            } else {
+                target[write--] = batch[next--];
+            }
+        }
+        if (target != procs) {
+            System.arraycopy(procs, head, target, start, read - head + 1);
+        }
+        procs = target;
+        head = start;
+        tail = start + size + count;
+    } // end of enqueueAll()
+
+
+    @Override
+    public String[] dequeueBatch(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be non-negative.");
+        }
+        String[] labels = new String[Math.min(n, tail - head)];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = procs[head].label;
+            labelIndex.remove(labels[i]);
+            procs[head] = null;
+            head++;
+        }
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return labels;
+    } // end of dequeueBatch()
+
+    /**
+     * @return The number of processes in the queue.
+     */
+    public int size() {
+        return tail - head;
+    }
+
+    private boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Slide the window back to the start of the array, freeing the slots after tail
+     */
+    private void compact() {
+        int size = tail - head;
+        Probe.visit(size);
+        System.arraycopy(procs, head, procs, 0, size);
+        Arrays.fill(procs, size, tail, null);
+        head = 0;
+        tail = size;
+    }
+
+    private void expandArray() {
+        Proc[] swap = new Proc[(int) (procs.length * 1.5) + 1];
+        System.arraycopy(procs, head, swap, 0, tail - head);
+        tail -= head;
+        head = 0;
+        procs = swap;
+    }
+
+    /**
+     * Binary search the first index in [head, tail) whose vt is strictly larger than the given vt,
+     * so that a new process goes after all the processes with the same vt (FIFO).
+     */
+    private int upperBound(int vt) {
+        int low = head;
+        int high = tail;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Probe.compare();
+            if (procs[mid].vt <= vt) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Look up the process in the label index, then binary search its slot by (vt, seq)
+     */
+    private int findByLabel(String procLabel) {
+        Proc proc = labelIndex.get(procLabel);
+        if (proc == null) {
+            //-1 means that the process is not found
+            return -1;
+        }
+        int low = head;
+        int high = tail - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Proc current = procs[mid];
+            Probe.compare();
+            if (current.vt < proc.vt || (current.vt == proc.vt && current.seq < proc.seq)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Walks the slots from the given index to the tail
+     */
+    private class ArrayCursor implements ProcessCursor {
+        private int next;
+        private Proc current;
+
+        ArrayCursor(int from) {
+            next = from;
+        }
+
+        @Override
+        public boolean next() {
+            if (next >= tail) {
+                return false;
+            }
+            Probe.visit();
+            current = procs[next++];
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.label;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static class Proc {
+        String label;
+        int vt;
+        long seq;
+
+        public Proc(String label, int vt, long seq) {
+            this.label = label;
+            this.vt = vt;
+            this.seq = seq;
+        }
+    }
+} // end of class OrderedArrayRQ
@@ -0,0 +1,406 @@
+package scheduler;
+
+import java.lang.String;
+import java.util.Arrays;
+
+/**
+ * Implementation of the run queue interface using an Ordered Link List.
+ * <p>
+ * Your task is to complete the implementation of this class.
+ * You may add methods and attributes, but ensure your modified class compiles and runs.
+ *
+ * @author Sajal Halder, Minyi Li, Jeffrey Chan.
+ */
+public class OrderedLinkedListRQ implements Runqueue {
+    int size;
+    LinkedProc first;
+    LinkedProc last;
+    private final LabelIndex<LinkedProc> labelIndex;
+
+    /**
+     * Constructs empty linked list
+     */
+    public OrderedLinkedListRQ() {
+        labelIndex = new LabelIndex<>();
+    }  // end of OrderedLinkedList()
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (labelIndex.containsKey(procLabel)) {
+            return;
+        }
+        LinkedProc preAdd = findInsertNode(vt);
+        LinkedProc node;
+        if (preAdd == null) {
+            node = addAtLast(procLabel, vt);
+        } else {
+            node = addBeforeNode(procLabel, vt, preAdd);
+        }
+        labelIndex.put(procLabel, node);
+    } // end of enqueue()
+
+    @Override
+    public String dequeue() {
+        String deLabel = "";
+        if (first != null) {
+            deLabel = first.label;
+            labelIndex.remove(deLabel);
+            deleteLink(first);
+        }
+        return deLabel;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        LinkedProc process = labelIndex.remove(procLabel);
+        if (process != null) {
+            deleteLink(process);
+            return true;
+        }
+        return false;
+    } // End of removeProcess()
+
+
+    /**
+     * Walk from the node to its new place, only over the processes it moves past, and relink the same node.
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        LinkedProc process = labelIndex.get(procLabel);
+        if (process == null) {
+            return false;
+        }
+        LinkedProc successor;
+        if (vt >= process.vt) {
+            //Forward, after every process with a vt up to the new one
+            successor = process.next;
+            while (successor != null && successor.vt <= vt) {
+                Probe.compare();
+                Probe.visit();
+                successor = successor.next;
+            }
+        } else {
+            //Backward, before every process with a larger vt
+            successor = process;
+            while (successor.prev != null && successor.prev.vt > vt) {
+                Probe.compare();
+                Probe.visit();
+                successor = successor.prev;
+            }
+        }
+        process.vt = vt;
+        if (successor != process && successor != process.next) {
+            deleteLink(process);
+            linkBefore(process, successor);
+        }
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        LinkedProc process = labelIndex.get(procLabel);
+        if (process != null) {
+            int sum = 0;
+            LinkedProc current = process.prev;
+            while (current != null) {
+                Probe.visit();
+                sum += current.vt;
+                current = current.prev;
+            }
+            return sum;
+        }
+        return -1;
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        LinkedProc process = labelIndex.get(procLabel);
+        if (process != null) {
+            int sum = 0;
+            LinkedProc current = process.next;
+            while (current != null) {
+                Probe.visit();
+                sum += current.vt;
+                current = current.next;
+            }
+            return sum;
+        }
+        return -1;
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        return new ListCursor(first);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        LinkedProc node = labelIndex.get(procLabel);
+        return node == null ? ProcessCursor.EMPTY : new ListCursor(node);
+    } // end of cursor()
+
+    /**
+     * Sort the new processes once, then link them in with a single walk over the list.
+     */
+    @Override
+    public void enqueueAll(String[] procLabels, int[] vts, int length) {
+        if (length < 0 || length > procLabels.length || length > vts.length) {
+            throw new IllegalArgumentException("length must be within the length of procLabels and vts.");
+        }
+        labelIndex.ensureCapacity(labelIndex.size() + length);
+        //Skip the labels already in the list or earlier in the batch, like repeated enqueue would
+        LinkedProc[] batch = new LinkedProc[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!labelIndex.containsKey(procLabels[i])) {
+                LinkedProc node = new LinkedProc(procLabels[i], vts[i]);
+                labelIndex.put(procLabels[i], node);
+                batch[count++] = node;
+            }
+        }
+        //The sort is stable, so the batch keeps its array order among the same vt
+        Arrays.sort(batch, 0, count, (a, b) -> Integer.compare(a.vt, b.vt));
+        //The batch is ascending, so the insert position only ever moves forward
+        LinkedProc current = first;
+        for (int i = 0; i < count; i++) {
+            while (current != null && current.vt <= batch[i].vt) {
+                current = current.next;
+            }
+            linkBefore(batch[i], current);
+        }
+    } // end of enqueueAll()
+
+
+    @Override
+    public String[] dequeueBatch(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be non-negative.");
+        }
+        String[] labels = new String[Math.min(n, size)];
+        LinkedProc current = first;
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = current.label;
+            labelIndex.remove(current.label);
+            current = current.next;
+        }
+        //Cut the list once after the last dequeued process
+        if (current == null) {
+            last = null;
+        } else if (current.prev != null) {
+            current.prev.next = null;
+            current.prev = null;
+        }
+        first = current;
+        size -= labels.length;
+        return labels;
+    } // end of dequeueBatch()
+
+    public void add(int index, String procLabel, int vt) {
+        if (index > size || index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        LinkedProc node;
+        if (index == size) {
+            node = addAtLast(procLabel, vt);
+        } else {
+            LinkedProc l = getByIndex(index);
+            node = addBeforeNode(procLabel, vt, l);
+        }
+        labelIndex.put(procLabel, node);
+    }
+
+    /**
+     * Find the first node with a larger vt, the new process goes right before it to keep FIFO among the same vt.
+     * Null means the new process goes at the end.
+     */
+    private LinkedProc findInsertNode(int vt) {
+        LinkedProc current = first;
+        while (current != null && current.vt <= vt) {
+            Probe.compare();
+            Probe.visit();
+            current = current.next;
+        }
+        return current;
+    }
+
+    private LinkedProc addAtLast(String procLabel, int vt) {
+        LinkedProc last = this.last;
+        LinkedProc node = new LinkedProc(procLabel, vt, null, last);
+        this.last = node;
+        if (last == null) {
+            first = node;
+        } else {
+            last.next = node;
+        }
+        size++;
+        return node;
+    }
+
+    public int getIndexByLabel(String label) {
+        LinkedProc cursor = first;
+        int count = 0;
+        while (cursor != null) {
+            if (label.equals(cursor.label)) {
+                return count;
+            }
+            count++;
+            cursor = cursor.next;
+        }
+        return -1;
+    }
+
+    private LinkedProc getByIndex(int index) {
+        if (index >= size || index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (index < (size >> 1)) {
+            LinkedProc cursor = first;
+            for (int i = 0; i < index; i++) {
+                cursor = cursor.next;
+            }
+            return cursor;
+        } else {
+            LinkedProc cursor = last;
+            for (int i = size - 1; i > index; i--) {
+                cursor = cursor.prev;
+            }
+            return cursor;
+        }
+    }
+
+    private LinkedProc addBeforeNode(String procLabel, int vt, LinkedProc preAdd) {
+        LinkedProc preNode = preAdd.prev;
+        LinkedProc newNode = new LinkedProc(procLabel, vt, preAdd, preNode);
+        if (preNode == null) {
+            first = newNode;
+        } else {
+            preNode.next = newNode;
+        }
+        preAdd.prev = newNode;
+        size++;
+        return newNode;
+    }
+
+    /**
+     * Link the node in before the successor, a null successor links it at the end
+     */
+    private void linkBefore(LinkedProc node, LinkedProc successor) {
+        LinkedProc preNode = successor == null ? last : successor.prev;
+        node.prev = preNode;
+        node.next = successor;
+        if (preNode == null) {
+            first = node;
+        } else {
+            preNode.next = node;
+        }
+        if (successor == null) {
+            last = node;
+        } else {
+            successor.prev = node;
+        }
+        size++;
+    }
+
+    private void deleteLink(LinkedProc l) {
+        LinkedProc prevNode = l.prev;
+        LinkedProc nextNode = l.next;
+
+        if (prevNode == null) {
+            first = nextNode;
+        } else {
+            prevNode.next = nextNode;
+            l.next = null;
+        }
+
+        if (nextNode == null) {
+            last = prevNode;
+        } else {
+            nextNode.prev = prevNode;
+            l.prev = null;
+        }
+        size--;
+    }
+
+    /**
+     * Follows the next links from the given node, in constant memory
+     */
+    static class ListCursor implements ProcessCursor {
+        private LinkedProc nextNode;
+        private LinkedProc current;
+
+        ListCursor(LinkedProc from) {
+            nextNode = from;
+        }
+
+        @Override
+        public boolean next() {
+            if (nextNode == null) {
+                return false;
+            }
+            Probe.visit();
+            current = nextNode;
+            nextNode = current.next;
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.label;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static class LinkedProc {
+        String label;
+        int vt;
+        LinkedProc next;
+        LinkedProc prev;
+
+        public LinkedProc(String label, int vt) {
+            this.label = label;
+            this.vt = vt;
+        }
+
+        public LinkedProc(String label, int vt, LinkedProc next, LinkedProc prev) {
+            this.label = label;
+            this.vt = vt;
+            this.next = next;
+            this.prev = prev;
+        }
+
+        @Override
+        public int hashCode() {
+            return label.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            LinkedProc that = (LinkedProc) o;
+
+            return label.equals(that.label);
+        }
+    }
+
+} // end of class OrderedLinkedListRQ
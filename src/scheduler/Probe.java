@@ -0,0 +1,70 @@
+package scheduler;
+
+/**
+ * Work counters of the Runqueue implementations, read by InstrumentedRunqueue.
+ * <p>
+ * The implementations call {@link #compare()} for every vt comparison of a search and {@link #visit()} for
+ * every process node they step over. The probe is switched on with {@code -Drunqueue.probe=true}; it is
+ * off by default, and as {@link #ENABLED} is a static final constant the JIT then drops the hooks
+ * entirely, so the plain hot path pays nothing. The counters are per thread, so the work of concurrent
+ * operations is not mixed up.
+ */
+public final class Probe {
+    /**
+     * Set once from the runqueue.probe system property when the class is loaded
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("runqueue.probe");
+
+    private static final ThreadLocal<Counters> COUNTERS = ThreadLocal.withInitial(Counters::new);
+
+    private Probe() {
+    }
+
+    /**
+     * Count one comparison between vt (or between the (vt, seq) order of two processes).
+     */
+    public static void compare() {
+        if (ENABLED) {
+            COUNTERS.get().comparisons++;
+        }
+    }
+
+    /**
+     * Count one node, array slot or bucket entry stepped over.
+     */
+    public static void visit() {
+        if (ENABLED) {
+            COUNTERS.get().visits++;
+        }
+    }
+
+    /**
+     * Count n nodes stepped over by a loop, so the loop itself needs no hook.
+     */
+    public static void visit(int n) {
+        if (ENABLED) {
+            COUNTERS.get().visits += n;
+        }
+    }
+
+    /**
+     * @return The counters of the calling thread, they only grow.
+     */
+    public static Counters counters() {
+        return COUNTERS.get();
+    }
+
+    public static final class Counters {
+        long comparisons;
+        long visits;
+
+        public long comparisons() {
+            return comparisons;
+        }
+
+        public long visits() {
+            return visits;
+        }
+    }
+
+} // end of class Probe
@@ -0,0 +1,50 @@
+package scheduler;
+
+/**
+ * Forward cursor over the processes of a Runqueue in dequeue order, i.e., by vt and FIFO among the same vt.
+ * <p>
+ * A new cursor stands before its first process and every call of next() moves it to the following one.
+ * The walk is iterative, it never recurses however deep the structure is, and a step allocates nothing,
+ * so a huge queue can be streamed a few processes at a time. The queue must not be modified while one of
+ * its cursors is in use, except a ConcurrentRunqueue whose cursors are weakly consistent.
+ */
+public interface ProcessCursor {
+    /**
+     * Cursor without any process
+     */
+    ProcessCursor EMPTY = new ProcessCursor() {
+        @Override
+        public boolean next() {
+            return false;
+        }
+
+        @Override
+        public String label() {
+            throw new IllegalStateException("The cursor is not on a process.");
+        }
+
+        @Override
+        public int vt() {
+            throw new IllegalStateException("The cursor is not on a process.");
+        }
+    };
+
+
+    /**
+     * Move to the next process.
+     *
+     * @return True if the cursor is on a process, false once every process has been visited.
+     */
+    boolean next();
+
+    /**
+     * @return Label of the current process, only valid after next() returned true.
+     */
+    String label();
+
+    /**
+     * @return Vruntime of the current process, only valid after next() returned true.
+     */
+    int vt();
+
+} // end of interface ProcessCursor
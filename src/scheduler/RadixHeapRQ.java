@@ -0,0 +1,460 @@
+package scheduler;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Implementation of the Runqueue interface using a Radix Heap.
+ * <p>
+ * A CFS style scheduler never enqueues a process with a vt below the last dequeued one. The radix heap
+ * relies on that: a process is put in the bucket of the highest bit where its vt differs from the last
+ * dequeued vt, and only the lowest non-empty bucket is ever redistributed. Every process moves to a lower
+ * bucket at most 32 times, so the operations are amortized O(log C) with C the vt range, and the buckets
+ * are plain FIFO lists without any comparison between processes on enqueue.
+ * <p>
+ * Processes with the same vt always sit in the same bucket in arrival order, which keeps the FIFO order.
+ * A non-monotone enqueue (vt below the last dequeued vt) is still accepted: the heap is rebuilt around
+ * the new minimum in O(n), and the number of such rebuilds is reported by fallbackCount().
+ * <p>
+ * The heap has no total order, so precedingProcessTime/succeedingProcessTime scan every bucket in O(n)
+ * and a cursor, which printAllProcesses walks, sorts a copy of the heap in O(n log n).
+ */
+public class RadixHeapRQ implements Runqueue {
+    /**
+     * Bucket 0 holds the vt equal to the last dequeued vt, bucket i the vt whose highest differing bit is i - 1
+     */
+    private static final int BUCKETS = 33;
+
+    private final RadixNode[] heads;
+    private final RadixNode[] tails;
+
+    /**
+     * Bucket heads before a rebuild, kept between rebuilds so that a rebuild does not allocate
+     */
+    private final RadixNode[] rebuildHeads;
+
+    /**
+     * Bit i is set when bucket i is not empty
+     */
+    private long occupied;
+
+    /**
+     * The last dequeued vt, no process in the heap has a smaller vt
+     */
+    private int last;
+
+    private int size;
+    private long nextSeq;
+    private int fallbackCount;
+    private final LabelIndex<RadixNode> labelIndex;
+
+    /**
+     * Constructs empty heap
+     */
+    public RadixHeapRQ() {
+        heads = new RadixNode[BUCKETS];
+        tails = new RadixNode[BUCKETS];
+        rebuildHeads = new RadixNode[BUCKETS];
+        occupied = 0L;
+        last = 0;
+        size = 0;
+        nextSeq = 0L;
+        fallbackCount = 0;
+        labelIndex = new LabelIndex<>();
+    }  // end of RadixHeapRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (labelIndex.containsKey(procLabel)) {
+            return;
+        }
+        if (vt < last) {
+            rebuild(vt);
+        }
+        RadixNode node = new RadixNode(procLabel, vt, nextSeq++);
+        append(node);
+        size++;
+        labelIndex.put(procLabel, node);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        if (size == 0) {
+            return "";
+        }
+        if (heads[0] == null) {
+            redistribute();
+        }
+        RadixNode first = heads[0];
+        unlink(first);
+        size--;
+        labelIndex.remove(first.label);
+        return first.label;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        RadixNode node = labelIndex.remove(procLabel);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        size--;
+        return true;
+    } // end of removeProcess()
+
+
+    /**
+     * Move the node to the end of the bucket of its new vt. A scheduler tick only increases the vt, a
+     * decrease below the last dequeued vt rebuilds the heap like a non-monotone enqueue.
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        RadixNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        if (vt < last) {
+            rebuild(vt);
+        }
+        node.vt = vt;
+        node.seq = nextSeq++;
+        append(node);
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        RadixNode target = labelIndex.get(procLabel);
+        if (target == null) {
+            return -1;
+        }
+        //Slow path, the heap does not know the position of the target in the dequeue order
+        long sum = 0L;
+        Probe.visit(size);
+        for (int i = 0; i < BUCKETS; i++) {
+            for (RadixNode current = heads[i]; current != null; current = current.next) {
+                if (precedes(current, target)) {
+                    sum += current.vt;
+                }
+            }
+        }
+        return (int) sum;
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        RadixNode target = labelIndex.get(procLabel);
+        if (target == null) {
+            return -1;
+        }
+        //Slow path, the heap does not know the position of the target in the dequeue order
+        long sum = 0L;
+        Probe.visit(size);
+        for (int i = 0; i < BUCKETS; i++) {
+            for (RadixNode current = heads[i]; current != null; current = current.next) {
+                if (precedes(target, current)) {
+                    sum += current.vt;
+                }
+            }
+        }
+        return (int) sum;
+    } // end of succeedingProcessTime()
+
+
+    /**
+     * The heap has no total order, the cursor walks a sorted copy made in O(n log n)
+     */
+    @Override
+    public ProcessCursor cursor() {
+        return new SortedCursor(sortedCopy(), 0);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        RadixNode target = labelIndex.get(procLabel);
+        if (target == null) {
+            return ProcessCursor.EMPTY;
+        }
+        RadixNode[] sorted = sortedCopy();
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (precedes(sorted[mid], target)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new SortedCursor(sorted, low);
+    } // end of cursor()
+
+
+    /**
+     * Bucket 0 only holds the last dequeued vt in FIFO order, otherwise the first process is the smallest
+     * of the lowest non-empty bucket.
+     */
+    @Override
+    public String peek() {
+        if (size == 0) {
+            return "";
+        }
+        if (heads[0] != null) {
+            return heads[0].label;
+        }
+        RadixNode min = heads[Long.numberOfTrailingZeros(occupied)];
+        for (RadixNode current = min.next; current != null; current = current.next) {
+            Probe.visit();
+            if (precedes(current, min)) {
+                min = current;
+            }
+        }
+        return min.label;
+    } // end of peek()
+
+
+    /**
+     * The vt ranges of the buckets do not overlap and grow with the bucket index, so only the lowest buckets
+     * holding the first k processes are collected and sorted.
+     */
+    @Override
+    public int peekTopK(int k, ObjIntConsumer<String> visitor) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative.");
+        }
+        int limit = Math.min(k, size);
+        if (limit == 0) {
+            return 0;
+        }
+        RadixNode[] found = new RadixNode[Math.max(limit, 16)];
+        int count = 0;
+        for (int i = 0; i < BUCKETS && count < limit; i++) {
+            for (RadixNode current = heads[i]; current != null; current = current.next) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = current;
+            }
+        }
+        Probe.visit(count);
+        Arrays.sort(found, 0, count, (a, b) -> a.vt != b.vt ? Integer.compare(a.vt, b.vt) : Long.compare(a.seq, b.seq));
+        for (int i = 0; i < limit; i++) {
+            visitor.accept(found[i].label, found[i].vt);
+        }
+        return limit;
+    } // end of peekTopK()
+
+
+    /**
+     * Scan every bucket in O(n) and sort the processes found.
+     */
+    @Override
+    public int rangeByVruntime(int lo, int hi, ObjIntConsumer<String> visitor) {
+        if (lo > hi) {
+            return 0;
+        }
+        RadixNode[] found = new RadixNode[16];
+        int count = 0;
+        Probe.visit(size);
+        for (int i = 0; i < BUCKETS; i++) {
+            for (RadixNode current = heads[i]; current != null; current = current.next) {
+                if (current.vt >= lo && current.vt <= hi) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = current;
+                }
+            }
+        }
+        Arrays.sort(found, 0, count, (a, b) -> a.vt != b.vt ? Integer.compare(a.vt, b.vt) : Long.compare(a.seq, b.seq));
+        for (int i = 0; i < count; i++) {
+            visitor.accept(found[i].label, found[i].vt);
+        }
+        return count;
+    } // end of rangeByVruntime()
+
+    /**
+     * @return The number of processes in the queue.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return How many times a non-monotone enqueue forced the heap to be rebuilt.
+     */
+    public int fallbackCount() {
+        return fallbackCount;
+    }
+
+    /**
+     * Bucket 0 is empty: take the lowest non-empty bucket, make its minimum the new last vt and
+     * spread its processes over the lower buckets, keeping their order
+     */
+    private void redistribute() {
+        int bucket = Long.numberOfTrailingZeros(occupied);
+        RadixNode current = heads[bucket];
+        int min = current.vt;
+        for (RadixNode node = current.next; node != null; node = node.next) {
+            Probe.visit();
+            if (node.vt < min) {
+                min = node.vt;
+            }
+        }
+        last = min;
+        heads[bucket] = null;
+        tails[bucket] = null;
+        occupied &= ~(1L << bucket);
+        while (current != null) {
+            RadixNode next = current.next;
+            append(current);
+            current = next;
+        }
+    }
+
+    /**
+     * Non-monotone enqueue: lower the last vt to the new vt and re-bucket every process, keeping their order
+     */
+    private void rebuild(int vt) {
+        fallbackCount++;
+        last = vt;
+        System.arraycopy(heads, 0, rebuildHeads, 0, BUCKETS);
+        Arrays.fill(heads, null);
+        Arrays.fill(tails, null);
+        occupied = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            RadixNode current = rebuildHeads[i];
+            rebuildHeads[i] = null;
+            while (current != null) {
+                RadixNode next = current.next;
+                append(current);
+                current = next;
+            }
+        }
+    }
+
+    /**
+     * Add the node at the end of the bucket matching its vt
+     */
+    private void append(RadixNode node) {
+        Probe.visit();
+        int bucket = node.vt == last ? 0 : 32 - Integer.numberOfLeadingZeros(node.vt ^ last);
+        node.bucket = bucket;
+        node.next = null;
+        node.prev = tails[bucket];
+        if (tails[bucket] == null) {
+            heads[bucket] = node;
+            occupied |= 1L << bucket;
+        } else {
+            tails[bucket].next = node;
+        }
+        tails[bucket] = node;
+    }
+
+    private void unlink(RadixNode node) {
+        int bucket = node.bucket;
+        if (node.prev == null) {
+            heads[bucket] = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tails[bucket] = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        if (heads[bucket] == null) {
+            occupied &= ~(1L << bucket);
+        }
+    }
+
+    /**
+     * Order by vt first, then by the insertion sequence to keep FIFO among the same vt
+     */
+    private static boolean precedes(RadixNode a, RadixNode b) {
+        Probe.compare();
+        if (a.vt != b.vt) {
+            return a.vt < b.vt;
+        }
+        return a.seq < b.seq;
+    }
+
+    /**
+     * @return The processes sorted by vt, then by insertion sequence.
+     */
+    private RadixNode[] sortedCopy() {
+        RadixNode[] sorted = new RadixNode[size];
+        int count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            for (RadixNode current = heads[i]; current != null; current = current.next) {
+                sorted[count++] = current;
+            }
+        }
+        Arrays.sort(sorted, (a, b) -> a.vt != b.vt ? Integer.compare(a.vt, b.vt) : Long.compare(a.seq, b.seq));
+        return sorted;
+    }
+
+    private static class SortedCursor implements ProcessCursor {
+        private final RadixNode[] sorted;
+        private int next;
+        private RadixNode current;
+
+        SortedCursor(RadixNode[] sorted, int from) {
+            this.sorted = sorted;
+            next = from;
+        }
+
+        @Override
+        public boolean next() {
+            if (next >= sorted.length) {
+                return false;
+            }
+            Probe.visit();
+            current = sorted[next++];
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.label;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static class RadixNode {
+        String label;
+        int vt;
+        long seq;
+        int bucket;
+        RadixNode prev;
+        RadixNode next;
+
+        RadixNode(String label, int vt, long seq) {
+            this.label = label;
+            this.vt = vt;
+            this.seq = seq;
+        }
+    }
+
+} // end of class RadixHeapRQ
@@ -0,0 +1,298 @@
+package scheduler;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Run queue interface used to implement a number of data structures.
+ *
+ * Note, you should not need to modify this.
+ *
+ * @author Sajal Halder, Minyi Li, Jeffrey Chan
+ */
+public interface Runqueue {
+
+    /**
+     * Create and add a process.
+     *
+     * @param procLabel Process label to be added.
+     * @param vt Vruntime of added process.
+     */
+    public abstract void enqueue(String procLabel, int vt);
+
+
+    /**
+     * Delete the process with the highest priority, i.e., the smallest vt value.
+     * Processes having the same vt follows FIFO order.
+     *
+     * @return Label of deleted/dequeued process.
+     */
+    public abstract String dequeue();
+
+
+    /**
+     * Find the specified process.
+     *
+     * @param procLabel Process label to find.
+     *
+     * @return True if procLabel exists in the runqueue; otherwise false.
+     */
+    public abstract boolean findProcess(String procLabel);
+
+
+    /**
+     * Removes a process from the run queue.
+     *
+     * @param procLabel Process to remove.
+     *
+     * @return True if successfully deleted, otherwise false (the process does not exist).
+     */
+    public abstract boolean removeProcess(String procLabel);
+
+
+    /**
+     * Calculate the total run time of the preceding processes of specified process.
+     *
+     * @param procLabel Process to calculate total proceding time for.
+     *
+     * @return Total executed vruntime before the specified process.
+     */
+    public abstract int precedingProcessTime(String procLabel);
+
+
+   /**
+     * Calculate the total run time of the succeeding processes of specified process.
+     *
+     * @param procLabel Process to calculate total succeeding time for.
+     *
+     * @return Total executed vruntime after the specified process.
+     */
+    public abstract int succeedingProcessTime(String procLabel);
+
+
+    /**
+     * Change the vruntime of a process, e.g., after a scheduler tick charged it its runtime.
+     * The process goes after the other processes with the same new vt, like a process enqueued now.
+     * Same as removeProcess followed by enqueue, implementations override it to move the existing entry.
+     *
+     * @param procLabel Process to update.
+     * @param vt New vruntime of the process.
+     *
+     * @return True if the process was updated, otherwise false (the process does not exist).
+     */
+    public default boolean updateVruntime(String procLabel, int vt) {
+        if (!removeProcess(procLabel)) {
+            return false;
+        }
+        enqueue(procLabel, vt);
+        return true;
+    }
+
+
+    /**
+     * Prints the list of process to PrintWriter 'os'.
+     *
+     * @param os PrinterWriter to print to.
+     */
+    public default void printAllProcesses(PrintWriter os) {
+        ProcessCursor cursor = cursor();
+        while (cursor.next()) {
+            os.print(cursor.label());
+            os.print(' ');
+        }
+        os.println();
+    }
+
+
+    /**
+     * Visit every process in dequeue order, i.e., by vt and FIFO among the same vt, without removing it.
+     *
+     * @param visitor Called with the label and vt of every process.
+     */
+    public default void forEachProcess(ObjIntConsumer<String> visitor) {
+        ProcessCursor cursor = cursor();
+        while (cursor.next()) {
+            visitor.accept(cursor.label(), cursor.vt());
+        }
+    }
+
+
+    /**
+     * Open a cursor on the processes in dequeue order, from the first one.
+     *
+     * @return Cursor before the first process.
+     */
+    public abstract ProcessCursor cursor();
+
+
+    /**
+     * Open a cursor on the processes in dequeue order, from the specified process.
+     *
+     * @param procLabel Process to start from, it is the first one returned by the cursor.
+     *
+     * @return Cursor before the specified process, or an empty cursor if the process does not exist.
+     */
+    public abstract ProcessCursor cursor(String procLabel);
+
+
+    /**
+     * Open a cursor on the processes in dequeue order, from the first process whose vt is at least the
+     * given vt. Implementations override it to seek the process instead of walking up to it.
+     *
+     * @param vt Smallest vt of the processes returned by the cursor.
+     *
+     * @return Cursor before the first process with a vt of at least vt.
+     */
+    public default ProcessCursor cursorFromVruntime(int vt) {
+        ProcessCursor cursor = cursor();
+        return new ProcessCursor() {
+            private boolean started;
+
+            @Override
+            public boolean next() {
+                if (!started) {
+                    started = true;
+                    while (cursor.next()) {
+                        if (cursor.vt() >= vt) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                return cursor.next();
+            }
+
+            @Override
+            public String label() {
+                return cursor.label();
+            }
+
+            @Override
+            public int vt() {
+                return cursor.vt();
+            }
+        };
+    }
+
+
+    /**
+     * Find the process with the highest priority without removing it.
+     *
+     * @return Label of the process dequeue would return, or an empty string if the runqueue is empty.
+     */
+    public default String peek() {
+        ProcessCursor cursor = cursor();
+        return cursor.next() ? cursor.label() : "";
+    }
+
+
+    /**
+     * Visit the k processes with the highest priority in dequeue order, without removing them.
+     *
+     * @param k Maximum number of processes to visit.
+     * @param visitor Called with the label and vt of every process.
+     *
+     * @return Number of processes visited, fewer than k if the runqueue holds fewer processes.
+     */
+    public default int peekTopK(int k, ObjIntConsumer<String> visitor) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative.");
+        }
+        int count = 0;
+        if (k == 0) {
+            return count;
+        }
+        ProcessCursor cursor = cursor();
+        while (count < k && cursor.next()) {
+            visitor.accept(cursor.label(), cursor.vt());
+            count++;
+        }
+        return count;
+    }
+
+
+    /**
+     * Visit the processes whose vt is in [lo, hi] in dequeue order, without removing them.
+     *
+     * @param lo Smallest vt of the visited processes.
+     * @param hi Largest vt of the visited processes.
+     * @param visitor Called with the label and vt of every process.
+     *
+     * @return Number of processes visited.
+     */
+    public default int rangeByVruntime(int lo, int hi, ObjIntConsumer<String> visitor) {
+        int count = 0;
+        if (lo > hi) {
+            return count;
+        }
+        ProcessCursor cursor = cursorFromVruntime(lo);
+        while (cursor.next() && cursor.vt() <= hi) {
+            visitor.accept(cursor.label(), cursor.vt());
+            count++;
+        }
+        return count;
+    }
+
+
+    /**
+     * Create and add a batch of processes, same as calling enqueue on every process in array order.
+     * Implementations override the overload with a length to load the whole batch with a single sort or heapify.
+     *
+     * @param procLabels Labels of the processes to be added.
+     * @param vts Vruntimes of the added processes, vts[i] belongs to procLabels[i].
+     */
+    public default void enqueueAll(String[] procLabels, int[] vts) {
+        if (procLabels.length != vts.length) {
+            throw new IllegalArgumentException("procLabels and vts must have the same length.");
+        }
+        enqueueAll(procLabels, vts, procLabels.length);
+    }
+
+
+    /**
+     * Create and add the first length processes of the arrays, same as enqueueAll on arrays of that length.
+     * A caller collecting processes into reused arrays hands them over without trimming a copy.
+     *
+     * @param procLabels Labels of the processes to be added.
+     * @param vts Vruntimes of the added processes, vts[i] belongs to procLabels[i].
+     * @param length Number of processes at the front of the arrays to add.
+     */
+    public default void enqueueAll(String[] procLabels, int[] vts, int length) {
+        if (length < 0 || length > procLabels.length || length > vts.length) {
+            throw new IllegalArgumentException("length must be within the length of procLabels and vts.");
+        }
+        for (int i = 0; i < length; i++) {
+            enqueue(procLabels[i], vts[i]);
+        }
+    }
+
+
+    /**
+     * Delete up to n processes with the highest priority, same as calling dequeue n times.
+     *
+     * @param n Maximum number of processes to dequeue.
+     *
+     * @return Labels of the dequeued processes in dequeue order, fewer than n if the runqueue runs empty.
+     */
+    public default String[] dequeueBatch(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be non-negative.");
+        }
+        //n is only an upper bound, the array grows with the dequeued labels instead of allocating n up front
+        String[] labels = new String[Math.min(n, 16)];
+        int count = 0;
+        while (count < n) {
+            String label = dequeue();
+            if (label.isEmpty()) {
+                break;
+            }
+            if (count == labels.length) {
+                labels = Arrays.copyOf(labels, (int) Math.min(n, 2L * count));
+            }
+            labels[count++] = label;
+        }
+        return count == labels.length ? labels : Arrays.copyOf(labels, count);
+    }
+
+} // end of interface Runqueue
@@ -0,0 +1,211 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+
+/**
+ * JMH benchmarks of every Runqueue operation for every implementation.
+ * <p>
+ * Each benchmark runs against a queue pre-filled with {@code size} processes whose vt follow the
+ * {@code distribution} parameter, with warmup iterations, forked JVMs and the results
+ * returned to JMH, so JMH reports throughput and average time with their confidence interval. The queries
+ * (find, PT, ST) cycle through the queued labels in a shuffled order. The updates (enqueue, dequeue,
+ * remove) work on batches of {@value #BATCH} processes and the queue is restored to its original content
+ * after every batch, outside of the measurement, so every batch sees the same queue size.
+ * <p>
+ * The full matrix takes hours, restrict it from the command line, e.g.
+ * {@code java scheduler.RunqueueBenchmark -p implementation=heap,skiplist -p size=100000 findProcess}
+ * This benchmark requires JMH 1.23 with its annotation processor.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RunqueueBenchmark {
+    /**
+     * Number of processes enqueued, dequeued or removed by every invocation of an update benchmark
+     */
+    static final int BATCH = 256;
+
+    /**
+     * Seed of the generated processes, every implementation sees the same workload
+     */
+    private static final long SEED = 20200409L;
+
+    @State(Scope.Thread)
+    public static class QueueState {
+        @Param({"array", "linkedlist", "tree", "balancedtree", "skiplist", "heap", "bucket", "radixheap",
+                "compacttree", "offheap", "concurrent"})
+        public String implementation;
+
+        @Param({"1000", "100000"})
+        public int size;
+
+        /**
+         * vt distribution of the WorkloadGenerator, with vt up to 100 like DataStructureEval
+         */
+        @Param({"uniform", "zipf", "monotone", "sawtooth"})
+        public String distribution;
+
+        Runqueue queue;
+
+        /**
+         * Process i is labels[i] with vts[i], processes [0, size) are queued, [size, size + BATCH) are the
+         * batch of the enqueue benchmark
+         */
+        String[] labels;
+        int[] vts;
+
+        /**
+         * Shuffled indices of the queued processes, the order of the queries and removals
+         */
+        int[] order;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            WorkloadGenerator generator = new WorkloadGenerator(SEED)
+                    .distribution(WorkloadGenerator.Distribution.valueOf(distribution.toUpperCase(Locale.ROOT)));
+            labels = new String[size + BATCH];
+            vts = new int[size + BATCH];
+            for (int i = 0; i < labels.length; i++) {
+                // labels are "P" + i, see vtOf
+                labels[i] = generator.nextLabel();
+                vts[i] = generator.nextVt();
+            }
+            Random random = new Random(SEED);
+            order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            queue = RunqueueFactory.create(implementation);
+            if (queue == null) {
+                throw new IllegalArgumentException("Unknown implementation " + implementation + ".");
+            }
+            for (int i = 0; i < size; i++) {
+                queue.enqueue(labels[i], vts[i]);
+            }
+        }
+
+        /**
+         * @return Label of the next queued process in the shuffled order.
+         */
+        String nextLabel() {
+            String label = labels[order[next]];
+            next = next + 1 == order.length ? 0 : next + 1;
+            return label;
+        }
+
+        int vtOf(String label) {
+            return vts[Integer.parseInt(label.substring(1))];
+        }
+    }
+
+    /**
+     * Queue state of the update benchmarks, the processes taken out or put in by a batch are restored
+     * after every invocation
+     */
+    public static class BatchState extends QueueState {
+        final String[] taken = new String[BATCH];
+        boolean enqueued;
+
+        @TearDown(Level.Invocation)
+        public void restore() {
+            if (enqueued) {
+                for (int i = size; i < size + BATCH; i++) {
+                    queue.removeProcess(labels[i]);
+                }
+                enqueued = false;
+            }
+            for (int i = 0; i < BATCH; i++) {
+                if (taken[i] != null) {
+                    queue.enqueue(taken[i], vtOf(taken[i]));
+                    taken[i] = null;
+                }
+            }
+        }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void enqueue(BatchState state) {
+        for (int i = state.size; i < state.size + BATCH; i++) {
+            state.queue.enqueue(state.labels[i], state.vts[i]);
+        }
+        state.enqueued = true;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void dequeue(BatchState state) {
+        for (int i = 0; i < BATCH; i++) {
+            state.taken[i] = state.queue.dequeue();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void removeProcess(BatchState state) {
+        for (int i = 0; i < BATCH; i++) {
+            String label = state.nextLabel();
+            if (state.queue.removeProcess(label)) {
+                state.taken[i] = label;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean findProcess(QueueState state) {
+        return state.queue.findProcess(state.nextLabel());
+    }
+
+    @Benchmark
+    public int precedingProcessTime(QueueState state) {
+        return state.queue.precedingProcessTime(state.nextLabel());
+    }
+
+    @Benchmark
+    public int succeedingProcessTime(QueueState state) {
+        return state.queue.succeedingProcessTime(state.nextLabel());
+    }
+
+
+    /**
+     * Run the benchmarks of this class, the JMH command line options (-p, -f, -wi, -i, ...) are accepted,
+     * the results are also written to jmh-result.csv.
+     *
+     * @param args JMH command line options.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.CSV)
+                .result("jmh-result.csv");
+        //JMH runs the union of the includes, so the class is only included when no benchmark is named
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(Pattern.quote(RunqueueBenchmark.class.getName()) + "\\.");
+        }
+        new Runner(options.build()).run();
+    }
+}
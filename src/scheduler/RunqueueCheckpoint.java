@@ -0,0 +1,284 @@
+package scheduler;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+
+/**
+ * Snapshot of the processes of a Runqueue in a memory-mapped checkpoint file, and the restore of a snapshot
+ * into a queue with a single enqueueAll call.
+ * <p>
+ * A checkpoint is the magic bytes "RQC1", the number of processes n (int) and the number of label bytes
+ * (long), then the vt of the n processes as a little-endian int array, then the n labels, each one as an
+ * unsigned LEB128 varint length followed by its UTF-8 bytes. The processes are stored in dequeue order, so
+ * the vt array is sorted and the processes with the same vt keep their FIFO order.
+ * <p>
+ * The restore reads the vt array with one bulk copy and hands both arrays to enqueueAll, which the sorted
+ * implementations turn into a single O(n) build instead of n separate enqueues. The checkpoint is written
+ * to a temporary file first and moved over the target once complete, so a crash while writing leaves the
+ * previous checkpoint in place.
+ */
+public class RunqueueCheckpoint {
+    private static final byte[] MAGIC = {'R', 'Q', 'C', '1'};
+
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * Size of the mapped window, a label must fit in one window
+     */
+    private static final int WINDOW_BYTES = 1 << 28;
+
+
+    /**
+     * Write the processes of the queue to a checkpoint file, replacing the file if it exists.
+     *
+     * @param queue Queue to snapshot, it is not modified. A ConcurrentRunqueue must not be updated during the
+     * snapshot, its traversal is only weakly consistent.
+     * @param path Checkpoint file to write.
+     *
+     * @return Number of processes written.
+     *
+     * @throws IOException Thrown if there is an I/O based exception.
+     */
+    public static int write(Runqueue queue, Path path) throws IOException {
+        //The labels are encoded during the traversal, so every label String is only read once
+        Snapshot snapshot = new Snapshot();
+        queue.forEachProcess(snapshot);
+        int count = snapshot.count;
+        long size = HEADER_BYTES + 4L * count + snapshot.labelBytes;
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Window out = new Window(channel, FileChannel.MapMode.READ_WRITE, size);
+            out.ensure(HEADER_BYTES);
+            out.buffer.put(MAGIC);
+            out.buffer.putInt(count);
+            out.buffer.putLong(snapshot.labelBytes);
+            out.ints(snapshot.vts, count, true);
+            out.bytes(snapshot.dictionary, snapshot.labelBytes);
+            out.close();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        //The rename is only an entry of the directory, until it is forced a crash can bring back the old file
+        forceDirectory(path.toAbsolutePath().getParent());
+        return count;
+    } // end of write()
+
+
+    /**
+     * Add the processes of a checkpoint file to the queue, in their dequeue order. Restored into an empty
+     * queue, they dequeue in the same order as from the queue which was written.
+     *
+     * @param path Checkpoint file to read.
+     * @param queue Queue to add the processes to, preferably empty.
+     *
+     * @return Number of processes read.
+     *
+     * @throws IOException Thrown if there is an I/O based exception, or if the file is not a complete
+     * checkpoint.
+     */
+    public static int restore(Path path, Runqueue queue) throws IOException {
+        String[] labels;
+        int[] vts;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(path + ": not a runqueue checkpoint.");
+            }
+            Window in = new Window(channel, FileChannel.MapMode.READ_ONLY, size);
+            in.ensure(HEADER_BYTES);
+            byte[] magic = new byte[MAGIC.length];
+            in.buffer.get(magic);
+            int count = in.buffer.getInt();
+            long labelBytes = in.buffer.getLong();
+            if (!Arrays.equals(magic, MAGIC) || count < 0 || labelBytes < 0
+                    || size != HEADER_BYTES + 4L * count + labelBytes) {
+                throw new IOException(path + ": not a runqueue checkpoint or truncated.");
+            }
+            vts = new int[count];
+            in.ints(vts, count, false);
+            labels = new String[count];
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < count; i++) {
+                in.ensure(Math.min(Varint.MAX_BYTES, size - in.position()));
+                int length = Varint.get(in.buffer);
+                if (length < 0 || length > size - in.position()) {
+                    throw new IOException(path + ": corrupted label " + i + ".");
+                }
+                in.ensure(length);
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, 2 * scratch.length)];
+                }
+                in.buffer.get(scratch, 0, length);
+                labels[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            if (in.position() != size) {
+                throw new IOException(path + ": corrupted label dictionary.");
+            }
+        }
+        queue.enqueueAll(labels, vts);
+        return labels.length;
+    } // end of restore()
+
+
+    /**
+     * Collects the vt of a traversal into a growing array and encodes the labels into a growing dictionary
+     */
+    static class Snapshot implements ObjIntConsumer<String> {
+        int[] vts = new int[16];
+        int count;
+        byte[] dictionary = new byte[256];
+        int labelBytes;
+
+        @Override
+        public void accept(String label, int vt) {
+            if (count == vts.length) {
+                vts = Arrays.copyOf(vts, count * 2);
+            }
+            vts[count++] = vt;
+            //Labels are nearly always ASCII, where a char is its own UTF-8 byte
+            int start = labelBytes;
+            int length = label.length();
+            reserve(Varint.MAX_BYTES + length);
+            labelBytes = Varint.put(dictionary, labelBytes, length);
+            for (int i = 0; i < length; i++) {
+                char c = label.charAt(i);
+                if (c >= 0x80) {
+                    labelBytes = start;
+                    byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+                    reserve(Varint.MAX_BYTES + bytes.length);
+                    labelBytes = Varint.put(dictionary, labelBytes, bytes.length);
+                    System.arraycopy(bytes, 0, dictionary, labelBytes, bytes.length);
+                    labelBytes += bytes.length;
+                    return;
+                }
+                dictionary[labelBytes++] = (byte) c;
+            }
+        }
+
+        private void reserve(int n) {
+            if (labelBytes + n > dictionary.length) {
+                long capacity = Math.max((long) dictionary.length * 2, (long) labelBytes + n);
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Labels of the runqueue do not fit in a 2 GiB dictionary.");
+                }
+                dictionary = Arrays.copyOf(dictionary, (int) capacity);
+            }
+        }
+    }
+
+    /**
+     * Force the entries of a directory to the disk, i.e., the files created, renamed or deleted in it.
+     * Windows cannot open a directory and does not need it, the call then does nothing.
+     *
+     * @param directory Directory to force.
+     *
+     * @throws IOException Thrown if there is an I/O based exception.
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Sequential access to a file through mapped windows of at most WINDOW_BYTES, moved forward on demand
+     */
+    static class Window {
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long size;
+        private long start;
+        MappedByteBuffer buffer;
+
+        Window(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+            this.channel = channel;
+            this.mode = mode;
+            this.size = size;
+            start = 0L;
+            map(0L);
+        }
+
+        long position() {
+            return start + buffer.position();
+        }
+
+        /**
+         * Make sure the next n bytes are in the window, mapping a new window at the current position if not
+         */
+        void ensure(long n) throws IOException {
+            if (buffer.remaining() < n) {
+                if (position() + n > size) {
+                    throw new IOException("checkpoint ends before byte " + (position() + n) + ".");
+                }
+                map(position());
+            }
+        }
+
+        /**
+         * Copy the int array from or to the file at the current position, one window at a time
+         */
+        void ints(int[] values, int count, boolean put) throws IOException {
+            int done = 0;
+            while (done < count) {
+                int chunk = Math.min(count - done, buffer.remaining() / 4);
+                if (chunk == 0) {
+                    ensure(4);
+                    continue;
+                }
+                if (put) {
+                    buffer.asIntBuffer().put(values, done, chunk);
+                } else {
+                    buffer.asIntBuffer().get(values, done, chunk);
+                }
+                buffer.position(buffer.position() + 4 * chunk);
+                done += chunk;
+            }
+        }
+
+        /**
+         * Copy the bytes to the file at the current position, one window at a time
+         */
+        void bytes(byte[] values, int count) throws IOException {
+            int done = 0;
+            while (done < count) {
+                if (!buffer.hasRemaining()) {
+                    map(position());
+                }
+                int chunk = Math.min(count - done, buffer.remaining());
+                buffer.put(values, done, chunk);
+                done += chunk;
+            }
+        }
+
+        void close() {
+            if (mode == FileChannel.MapMode.READ_WRITE) {
+                buffer.force();
+            }
+        }
+
+        private void map(long position) throws IOException {
+            if (buffer != null && mode == FileChannel.MapMode.READ_WRITE) {
+                buffer.force();
+            }
+            start = position;
+            int length = (int) Math.min(WINDOW_BYTES, size - position);
+            buffer = channel.map(mode, position, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+} // end of class RunqueueCheckpoint
@@ -0,0 +1,53 @@
+package scheduler;
+
+/**
+ * Creates a Runqueue implementation from the short name used on the RunqueueTester command line, so that
+ * the tester and the benchmarks accept the same names.
+ */
+public class RunqueueFactory {
+    /**
+     * Short names of every implementation
+     */
+    public static final String[] NAMES = {
+        "array", "linkedlist", "tree", "balancedtree", "skiplist", "heap", "bucket", "radixheap", "compacttree",
+        "offheap", "concurrent"
+    };
+
+    private RunqueueFactory() {
+    }
+
+    /**
+     * @param implementationType Short name of the implementation.
+     *
+     * @return A new empty queue, or null if the name is unknown.
+     */
+    public static Runqueue create(String implementationType) {
+        switch (implementationType) {
+            case "array":
+                return new OrderedArrayRQ();
+            case "linkedlist":
+                return new OrderedLinkedListRQ();
+            case "tree":
+                return new BinarySearchTreeRQ();
+            case "balancedtree":
+                return new BalancedTreeRQ();
+            case "skiplist":
+                return new SkipListRQ();
+            case "heap":
+                return new HeapRQ();
+            case "bucket":
+                return new BucketRQ();
+            case "radixheap":
+                return new RadixHeapRQ();
+            case "compacttree":
+                return new CompactTreeRQ();
+            case "offheap":
+                return new OffHeapRQ();
+            case "concurrent":
+                return new ConcurrentRunqueue();
+            default:
+                return null;
+        }
+    } // end of create()
+
+} // end of class RunqueueFactory
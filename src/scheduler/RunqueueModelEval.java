@@ -0,0 +1,561 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Differential test of every Runqueue implementation of RunqueueFactory.NAMES against a reference model.
+ * <p>
+ * The model is a plain list in dequeue order, where a process goes after every process with a lower or equal
+ * vt, so the processes with the same vt leave in FIFO order. Every implementation runs the same seeded random
+ * operations as the model and every result is compared: the dequeued label, findProcess, removeProcess,
+ * updateVruntime, PT/ST, then the whole queue in dequeue order. The cursors and the peek, top-k and range
+ * queries are compared with the suffixes, prefixes and slices of the model.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class RunqueueModelEval {
+    /**
+     * Number of random operations of every run
+     */
+    private static final int OPERATIONS = 4000;
+
+    /**
+     * vt of the random enqueues
+     */
+    enum VtRange {
+        /**
+         * 0 to 9, almost every process ties with others
+         */
+        TIES,
+        /**
+         * 0 to 10^6, hardly any ties, and outside of the buckets of BucketRQ
+         */
+        WIDE,
+        /**
+         * At least the last dequeued vt, the CFS pattern the RadixHeapRQ is built for
+         */
+        MONOTONE,
+        /**
+         * -50 to 199, on both sides of the bucket range of BucketRQ
+         */
+        NEGATIVE;
+
+        int next(Random random, int lastDequeued) {
+            switch (this) {
+                case TIES:
+                    return random.nextInt(10);
+                case WIDE:
+                    return random.nextInt(1000000);
+                case MONOTONE:
+                    return lastDequeued + random.nextInt(20);
+                default:
+                    return random.nextInt(250) - 50;
+            }
+        }
+    }
+
+    @Order(1)
+    @DisplayName("Random operations give the same results as the reference model")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}, vt = {1}")
+    @MethodSource("rangeProvider")
+    void randomOperations(String name, VtRange range) {
+        for (int seed = 0; seed < 5; seed++) {
+            Random random = new Random(seed);
+            Runqueue queue = RunqueueFactory.create(name);
+            ModelQueue model = new ModelQueue();
+            int nextId = 0;
+            int lastDequeued = 0;
+            for (int op = 0; op < OPERATIONS; op++) {
+                String at = name + " seed " + seed + " op " + op;
+                int choice = random.nextInt(20);
+                if (choice < 7 || model.size() == 0) {
+                    String label = "P" + nextId++;
+                    int vt = range.next(random, lastDequeued);
+                    queue.enqueue(label, vt);
+                    model.enqueue(label, vt);
+                } else if (choice < 8) {
+                    //An enqueue of a queued label is ignored, its vt does not change
+                    queue.enqueue(model.randomLabel(random), range.next(random, lastDequeued));
+                } else if (choice < 12) {
+                    String expected = model.dequeue();
+                    assertEquals(expected, queue.dequeue(), at);
+                    if (!expected.isEmpty()) {
+                        lastDequeued = Math.max(lastDequeued, model.lastVt);
+                    }
+                } else if (choice < 14) {
+                    String label = random.nextBoolean() ? model.randomLabel(random) : "missing" + op;
+                    assertEquals(model.remove(label), queue.removeProcess(label), at + " remove " + label);
+                } else if (choice < 16) {
+                    String label = random.nextBoolean() ? model.randomLabel(random) : "missing" + op;
+                    assertEquals(model.find(label), queue.findProcess(label), at + " find " + label);
+                } else {
+                    String label = random.nextInt(4) > 0 ? model.randomLabel(random) : "missing" + op;
+                    assertEquals(model.precedingTime(label), queue.precedingProcessTime(label), at + " PT " + label);
+                    assertEquals(model.succeedingTime(label), queue.succeedingProcessTime(label), at + " ST " + label);
+                }
+            }
+            assertEquals(model.processes(), processes(queue), name + " seed " + seed);
+            while (model.size() > 0) {
+                assertEquals(model.dequeue(), queue.dequeue(), name + " seed " + seed + " drain");
+            }
+            assertEquals("", queue.dequeue(), name + " seed " + seed + " empty");
+        }
+    }
+
+    @Order(2)
+    @DisplayName("Processes with the same vt leave in enqueue order")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}")
+    @MethodSource("nameProvider")
+    void fifoOnTies(String name) {
+        Runqueue queue = RunqueueFactory.create(name);
+        ModelQueue model = new ModelQueue();
+        //Interleave three vt, then take some out of the middle of a tie and enqueue more of the same vt
+        for (int i = 0; i < 30; i++) {
+            int vt = 5 * (i % 3);
+            queue.enqueue("P" + i, vt);
+            model.enqueue("P" + i, vt);
+        }
+        for (int i = 4; i < 30; i += 6) {
+            assertEquals(model.remove("P" + i), queue.removeProcess("P" + i));
+        }
+        for (int i = 30; i < 40; i++) {
+            queue.enqueue("P" + i, 5 * (i % 3));
+            model.enqueue("P" + i, 5 * (i % 3));
+        }
+        assertEquals(model.processes(), processes(queue), name);
+        for (int i = 0; i < 40; i += 7) {
+            String label = "P" + i;
+            assertEquals(model.precedingTime(label), queue.precedingProcessTime(label), name + " PT " + label);
+            assertEquals(model.succeedingTime(label), queue.succeedingProcessTime(label), name + " ST " + label);
+        }
+        while (model.size() > 0) {
+            assertEquals(model.dequeue(), queue.dequeue(), name);
+        }
+    }
+
+    @Order(3)
+    @DisplayName("Cursors start at the process or vt they seek and walk the rest in dequeue order")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}")
+    @MethodSource("nameProvider")
+    void cursors(String name) {
+        Runqueue queue = RunqueueFactory.create(name);
+        ModelQueue model = new ModelQueue();
+        //Ties, gaps between the keys, and vt on both sides of the bucket range of BucketRQ
+        int[] vts = {9, 0, 130, 3, 9, -5, 200, 27, 3};
+        for (int i = 0; i < 45; i++) {
+            queue.enqueue("P" + i, vts[i % vts.length]);
+            model.enqueue("P" + i, vts[i % vts.length]);
+        }
+        //Move the head, and take a process out of the middle of a tie
+        for (int i = 0; i < 3; i++) {
+            assertEquals(model.dequeue(), queue.dequeue());
+        }
+        assertEquals(model.remove("P13"), queue.removeProcess("P13"));
+
+        List<String> all = model.processes();
+        assertEquals(all, walk(queue.cursor()), name + " cursor()");
+        int middle = all.size() / 2;
+        for (int index : new int[]{0, 1, middle, all.size() - 2, all.size() - 1}) {
+            String label = labelOf(all.get(index));
+            assertEquals(all.subList(index, all.size()), walk(queue.cursor(label)), name + " cursor(" + label + ")");
+        }
+        assertEquals(new ArrayList<String>(), walk(queue.cursor("P13")), name + " removed label");
+        assertEquals(new ArrayList<String>(), walk(queue.cursor("missing")), name + " missing label");
+
+        for (int vt : new int[]{Integer.MIN_VALUE, -6, -5, -1, 0, 1, 4, 9, 10, 28, 129, 130, 131, 200, 201,
+                Integer.MAX_VALUE}) {
+            assertEquals(model.processesFrom(vt), walk(queue.cursorFromVruntime(vt)),
+                    name + " cursorFromVruntime(" + vt + ")");
+        }
+
+        //An exhausted cursor stays exhausted
+        ProcessCursor cursor = queue.cursor(labelOf(all.get(all.size() - 1)));
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+    }
+
+    /**
+     * "label:vt" -> "label"
+     */
+    static String labelOf(String process) {
+        return process.substring(0, process.lastIndexOf(':'));
+    }
+
+    @Order(4)
+    @DisplayName("peek, peekTopK and rangeByVruntime return the model processes without removing them")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}")
+    @MethodSource("nameProvider")
+    void queries(String name) {
+        Runqueue queue = RunqueueFactory.create(name);
+        assertEquals("", queue.peek(), name + " empty peek");
+        assertEquals(new ArrayList<String>(), topK(queue, 3), name + " empty peekTopK");
+        assertEquals(new ArrayList<String>(), range(queue, Integer.MIN_VALUE, Integer.MAX_VALUE), name + " empty range");
+
+        ModelQueue model = new ModelQueue();
+        int[] vts = {9, 0, 130, 3, 9, -5, 200, 27, 3};
+        for (int i = 0; i < 45; i++) {
+            queue.enqueue("P" + i, vts[i % vts.length]);
+            model.enqueue("P" + i, vts[i % vts.length]);
+        }
+        assertEquals(model.dequeue(), queue.dequeue());
+        assertEquals(model.remove("P14"), queue.removeProcess("P14"));
+        List<String> all = model.processes();
+
+        assertEquals(labelOf(all.get(0)), queue.peek(), name + " peek");
+        for (int k : new int[]{0, 1, 5, all.size() - 1, all.size(), all.size() + 10}) {
+            assertEquals(all.subList(0, Math.min(k, all.size())), topK(queue, k), name + " peekTopK(" + k + ")");
+        }
+        assertThrows(IllegalArgumentException.class, () -> queue.peekTopK(-1, (label, vt) -> { }));
+
+        //Both bounds are inclusive and hold every process of a tie, lo > hi is an empty range
+        int[][] ranges = {{3, 9}, {4, 8}, {9, 9}, {-5, -5}, {-100, -6}, {0, 27}, {10, 26}, {28, 129}, {130, 200},
+                {201, Integer.MAX_VALUE}, {Integer.MIN_VALUE, Integer.MAX_VALUE}, {9, 3}, {Integer.MAX_VALUE, 0}};
+        for (int[] bounds : ranges) {
+            assertEquals(model.processesIn(bounds[0], bounds[1]), range(queue, bounds[0], bounds[1]),
+                    name + " rangeByVruntime(" + bounds[0] + ", " + bounds[1] + ")");
+        }
+
+        //Nothing was removed, and the queries agree with the dequeue order all the way down
+        assertEquals(all, processes(queue), name + " after the queries");
+        while (model.size() > 0) {
+            List<String> rest = model.processes();
+            assertEquals(labelOf(rest.get(0)), queue.peek(), name + " peek");
+            assertEquals(rest.subList(0, Math.min(3, rest.size())), topK(queue, 3), name + " peekTopK(3)");
+            assertEquals(model.dequeue(), queue.dequeue(), name);
+        }
+        assertEquals("", queue.peek(), name + " drained peek");
+    }
+
+    @Order(5)
+    @DisplayName("updateVruntime puts the process after the processes with the same new vt")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}, vt = {1}")
+    @MethodSource("rangeProvider")
+    void updateVruntime(String name, VtRange range) {
+        Runqueue queue = RunqueueFactory.create(name);
+        ModelQueue model = new ModelQueue();
+        for (int i = 0; i < 12; i++) {
+            queue.enqueue("P" + i, 10 * (i % 4));
+            model.enqueue("P" + i, 10 * (i % 4));
+        }
+        //Onto a tie: the moved process goes last among the same vt, also when it keeps its own vt
+        String[] moves = {"P1", "20", "P0", "0", "P4", "0", "P10", "10", "P3", "-3", "P3", "-3"};
+        for (int i = 0; i < moves.length; i += 2) {
+            int vt = Integer.parseInt(moves[i + 1]);
+            assertTrue(queue.updateVruntime(moves[i], vt), name + " update " + moves[i]);
+            model.update(moves[i], vt);
+            assertEquals(model.processes(), processes(queue), name + " after " + moves[i] + " -> " + vt);
+        }
+        //The head, moved back and forward
+        for (int vt : new int[]{1000, -1000, 0}) {
+            String head = queue.peek();
+            assertTrue(queue.updateVruntime(head, vt), name + " update head " + head);
+            model.update(head, vt);
+            assertEquals(model.processes(), processes(queue), name + " head " + head + " -> " + vt);
+        }
+        //A missing or already dequeued label changes nothing
+        String dequeued = queue.dequeue();
+        assertEquals(model.dequeue(), dequeued);
+        assertFalse(queue.updateVruntime("missing", 5), name + " missing");
+        assertFalse(queue.updateVruntime(dequeued, 5), name + " dequeued " + dequeued);
+        assertFalse(queue.findProcess(dequeued), name + " dequeued " + dequeued);
+        assertEquals(model.processes(), processes(queue), name + " after missing updates");
+
+        //Random updates mixed with the other operations, every result against the model
+        Random random = new Random(25);
+        int nextId = 12;
+        int lastDequeued = 0;
+        for (int op = 0; op < OPERATIONS; op++) {
+            String at = name + " op " + op;
+            int choice = random.nextInt(10);
+            if (choice < 3 || model.size() == 0) {
+                String label = "Q" + nextId++;
+                int vt = range.next(random, lastDequeued);
+                queue.enqueue(label, vt);
+                model.enqueue(label, vt);
+            } else if (choice < 5) {
+                String expected = model.dequeue();
+                assertEquals(expected, queue.dequeue(), at);
+                lastDequeued = Math.max(lastDequeued, model.lastVt);
+            } else {
+                String label = random.nextInt(8) > 0 ? model.randomLabel(random) : "missing" + op;
+                //The new vt often ties with the vt of a queued process
+                int vt = random.nextBoolean() ? range.next(random, lastDequeued) : model.randomVt(random);
+                assertEquals(model.update(label, vt), queue.updateVruntime(label, vt), at + " update " + label);
+                if (op % 16 == 0) {
+                    assertEquals(model.precedingTime(label), queue.precedingProcessTime(label), at + " PT " + label);
+                    assertEquals(model.succeedingTime(label), queue.succeedingProcessTime(label), at + " ST " + label);
+                }
+            }
+        }
+        assertEquals(model.processes(), processes(queue), name);
+        while (model.size() > 0) {
+            assertEquals(model.dequeue(), queue.dequeue(), name + " drain");
+        }
+    }
+
+    @Order(6)
+    @DisplayName("enqueueAll and dequeueBatch give the same order as repeated enqueue and dequeue")
+    @ParameterizedTest(name = "{index} => Queue Type = {0}, vt = {1}")
+    @MethodSource("rangeProvider")
+    void batchOperations(String name, VtRange range) {
+        Random random = new Random(12);
+        Runqueue queue = RunqueueFactory.create(name);
+        ModelQueue model = new ModelQueue();
+        int nextId = 0;
+        int lastDequeued = 0;
+        for (int round = 0; round < 200; round++) {
+            String at = name + " round " + round;
+            //Batches on both sides of the queue size, so the one by one and the sorted or heapified loads run
+            int length = random.nextInt(4) == 0 ? model.size() + random.nextInt(40) : random.nextInt(8);
+            String[] labels = new String[length + random.nextInt(3)];
+            int[] vts = new int[labels.length];
+            for (int i = 0; i < length; i++) {
+                int choice = random.nextInt(10);
+                if (choice == 0 && i > 0) {
+                    //Again within the batch, with another vt the enqueue must ignore
+                    labels[i] = labels[random.nextInt(i)];
+                } else if (choice == 1 && model.size() > 0) {
+                    labels[i] = model.randomLabel(random);
+                } else {
+                    labels[i] = "P" + nextId++;
+                }
+                vts[i] = range.next(random, lastDequeued);
+                model.enqueue(labels[i], vts[i]);
+            }
+            //The slots past length are junk the length overload must not read
+            for (int i = length; i < labels.length; i++) {
+                labels[i] = "junk" + round;
+                vts[i] = -1;
+            }
+            if (length == labels.length && random.nextBoolean()) {
+                queue.enqueueAll(labels, vts);
+            } else {
+                queue.enqueueAll(labels, vts, length);
+            }
+            assertEquals(model.processes(), processes(queue), at + " enqueueAll " + length);
+
+            //Also more than queued, up to a bound no array could be allocated for
+            int[] amounts = {0, 1, random.nextInt(10), model.size() + 5};
+            int n = round % 25 == 24 ? Integer.MAX_VALUE : amounts[random.nextInt(amounts.length)];
+            List<String> expected = new ArrayList<>();
+            while (expected.size() < n && model.size() > 0) {
+                expected.add(model.dequeue());
+                lastDequeued = Math.max(lastDequeued, model.lastVt);
+            }
+            assertEquals(expected, Arrays.asList(queue.dequeueBatch(n)), at + " dequeueBatch " + n);
+            assertEquals(model.processes(), processes(queue), at + " after dequeueBatch " + n);
+        }
+        assertEquals(0, queue.dequeueBatch(Integer.MAX_VALUE).length, name + " empty");
+        assertThrows(IllegalArgumentException.class, () -> queue.dequeueBatch(-1), name);
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueueAll(new String[2], new int[1]), name);
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueueAll(new String[2], new int[2], 3), name);
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueueAll(new String[2], new int[2], -1), name);
+    }
+
+    /**
+     * @return The processes visited by peekTopK as "label:vt", after checking the count it returned.
+     */
+    private static List<String> topK(Runqueue queue, int k) {
+        List<String> processes = new ArrayList<>();
+        int count = queue.peekTopK(k, (label, vt) -> processes.add(label + ":" + vt));
+        assertEquals(processes.size(), count);
+        return processes;
+    }
+
+    /**
+     * @return The processes visited by rangeByVruntime as "label:vt", after checking the count it returned.
+     */
+    private static List<String> range(Runqueue queue, int lo, int hi) {
+        List<String> processes = new ArrayList<>();
+        int count = queue.rangeByVruntime(lo, hi, (label, vt) -> processes.add(label + ":" + vt));
+        assertEquals(processes.size(), count);
+        return processes;
+    }
+
+    /**
+     * @return The processes the cursor walks as "label:vt".
+     */
+    static List<String> walk(ProcessCursor cursor) {
+        List<String> processes = new ArrayList<>();
+        while (cursor.next()) {
+            processes.add(cursor.label() + ":" + cursor.vt());
+        }
+        return processes;
+    }
+
+    /**
+     * @return The processes of the queue as "label:vt", in dequeue order.
+     */
+    static List<String> processes(Runqueue queue) {
+        List<String> processes = new ArrayList<>();
+        queue.forEachProcess((label, vt) -> processes.add(label + ":" + vt));
+        return processes;
+    }
+
+    private static Stream<Arguments> rangeProvider() {
+        List<Arguments> arguments = new ArrayList<>();
+        for (String name : RunqueueFactory.NAMES) {
+            for (VtRange range : VtRange.values()) {
+                arguments.add(Arguments.of(name, range));
+            }
+        }
+        return arguments.stream();
+    }
+
+    private static Stream<String> nameProvider() {
+        return Stream.of(RunqueueFactory.NAMES);
+    }
+
+    /**
+     * Reference model, a list in dequeue order where every operation is a linear scan
+     */
+    static class ModelQueue {
+        private final List<String> labels = new ArrayList<>();
+        private final List<Integer> vts = new ArrayList<>();
+
+        /**
+         * vt of the last dequeued process
+         */
+        int lastVt;
+
+        void enqueue(String label, int vt) {
+            if (labels.contains(label)) {
+                return;
+            }
+            int index = 0;
+            while (index < vts.size() && vts.get(index) <= vt) {
+                index++;
+            }
+            labels.add(index, label);
+            vts.add(index, vt);
+        }
+
+        String dequeue() {
+            if (labels.isEmpty()) {
+                return "";
+            }
+            lastVt = vts.remove(0);
+            return labels.remove(0);
+        }
+
+        boolean find(String label) {
+            return labels.contains(label);
+        }
+
+        boolean remove(String label) {
+            int index = labels.indexOf(label);
+            if (index == -1) {
+                return false;
+            }
+            labels.remove(index);
+            vts.remove(index);
+            return true;
+        }
+
+        int precedingTime(String label) {
+            int index = labels.indexOf(label);
+            if (index == -1) {
+                return -1;
+            }
+            int sum = 0;
+            for (int i = 0; i < index; i++) {
+                sum += vts.get(i);
+            }
+            return sum;
+        }
+
+        int succeedingTime(String label) {
+            int index = labels.indexOf(label);
+            if (index == -1) {
+                return -1;
+            }
+            int sum = 0;
+            for (int i = index + 1; i < vts.size(); i++) {
+                sum += vts.get(i);
+            }
+            return sum;
+        }
+
+        /**
+         * Remove and enqueue again with the new vt
+         */
+        boolean update(String label, int vt) {
+            if (!remove(label)) {
+                return false;
+            }
+            enqueue(label, vt);
+            return true;
+        }
+
+        int size() {
+            return labels.size();
+        }
+
+        /**
+         * @return The vt of a queued process, or 0 if the model is empty.
+         */
+        int randomVt(Random random) {
+            return vts.isEmpty() ? 0 : vts.get(random.nextInt(vts.size()));
+        }
+
+        /**
+         * @return A queued label, or a label which was never queued if the model is empty.
+         */
+        String randomLabel(Random random) {
+            return labels.isEmpty() ? "none" : labels.get(random.nextInt(labels.size()));
+        }
+
+        /**
+         * @return The processes with a vt of at least the given vt as "label:vt", in dequeue order.
+         */
+        List<String> processesFrom(int vt) {
+            List<String> processes = new ArrayList<>();
+            for (int i = 0; i < labels.size(); i++) {
+                if (vts.get(i) >= vt) {
+                    processes.add(labels.get(i) + ":" + vts.get(i));
+                }
+            }
+            return processes;
+        }
+
+        /**
+         * @return The processes with a vt in [lo, hi] as "label:vt", in dequeue order.
+         */
+        List<String> processesIn(int lo, int hi) {
+            List<String> processes = new ArrayList<>();
+            for (int i = 0; i < labels.size(); i++) {
+                if (vts.get(i) >= lo && vts.get(i) <= hi) {
+                    processes.add(labels.get(i) + ":" + vts.get(i));
+                }
+            }
+            return processes;
+        }
+
+        /**
+         * @return The processes as "label:vt", in dequeue order.
+         */
+        List<String> processes() {
+            List<String> processes = new ArrayList<>();
+            for (int i = 0; i < labels.size(); i++) {
+                processes.add(labels.get(i) + ":" + vts.get(i));
+            }
+            return processes;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package scheduler;
+
+import java.io.PrintWriter;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.InputStreamReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.String;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Framework to test the process scheduler implementations.
+ * NO NEED TO MODIFY THIS FILE.
+ *
+ * @author Sajal Halder, Minyi Li, Jeffrey Chan
+ */
+public class RunqueueTester {
+
+    /** Name of class, used in error messages. */
+    protected static final String progName = "RunqueueTester";
+
+    /** Size of the output buffer of the file mode, the output file is only written when it is full or at the end. */
+    protected static final int OUTPUT_BUFFER_BYTES = 1 << 20;
+
+
+    /**
+     * Print help/usage message.
+     */
+    public static void usage(String progName) {
+        System.err.println(progName + ": <implementation> [filename of input commands] [filename to print output] [input reader]");
+        System.err.println("<implementation> = <array | linkedlist | tree | balancedtree | skiplist | heap | bucket | radixheap | compacttree | offheap | concurrent>");
+        System.err.println("[input reader] = <text | mmap | binary>, text by default, mmap decodes the memory-mapped input file directly, binary replays a trace written by BinaryTrace.");
+        System.err.println("If optional filenames are specified, then the " +
+            "non-interative mode will be used and output is written to the " +
+            " specified output file.  Otherwise interative mode is assumed and " +
+            " output is written to System.out.");
+
+        System.exit(1);
+   	 } // end of usage()
+
+
+	/**
+	 * Process the operation commands coming from inReader, and updates the
+     * process queue according to the operations.
+     *
+	 * @param inReader Input reader where the operation commands are coming from.
+	 * @param queue The queue structure which the operations are executed on.
+	 * @param processOutWriter Where to send the results of running the commands.
+     *
+	 * @throws IOException Thrown if there is an I/O based exception.
+	 */
+	public static void processOperations(BufferedReader inReader, Runqueue queue, PrintWriter processOutWriter)
+        throws IOException
+    {
+        String line;
+        // current line number, which reflect how many commands have been entered.
+        int lineNum = 1;
+        boolean bQuit = false;
+        // consecutive enqueue commands are collected and added with a single enqueueAll call
+        EnqueueBatch batch = new EnqueueBatch();
+
+        // continue reading in commands until we either receive the quit signal
+        // or there are no more input commands from input file
+        while (!bQuit && (line = inReader.readLine()) != null) {
+            bQuit = processLine(line, lineNum, queue, processOutWriter, batch);
+            lineNum++;
+        } // end of while loop
+
+        batch.flush(queue);
+        // quit or end of input, push out whatever is still buffered
+        processOutWriter.flush();
+	} // end of processOperations()
+
+
+    /**
+     * Execute a single command line, the errors are reported on System.err with the line number.
+     *
+     * @param line Command line without its line terminator.
+     * @param lineNum Line number used in the error messages.
+     * @param queue The queue structure which the operation is executed on.
+     * @param processOutWriter Where to send the result of running the command.
+     * @param batch Pending enqueue commands, an enqueue is only added to the batch and every other command
+     *              flushes the batch first.
+     *
+     * @return True if the command is the quit signal.
+     */
+    public static boolean processLine(String line, int lineNum, Runqueue queue, PrintWriter processOutWriter,
+        EnqueueBatch batch)
+    {
+        String[] tokens = line.split(" ");
+
+        // check if there is at least an operation command
+        if (tokens.length < 1) {
+            System.err.println(lineNum + ": not enough tokens.");
+            return false;
+        }
+
+        String command = tokens[0];
+
+        // every other command may depend on the pending processes, add them first
+        if (!command.equalsIgnoreCase("EN")) {
+            batch.flush(queue);
+        }
+
+        try {
+            // determine which operation to execute
+            switch (command.toUpperCase()) {
+                // add process to queue
+                case "EN":
+                    if (tokens.length == 3) {
+                        int vt = Integer.parseInt(tokens[2]);
+                        if (vt < 0) {
+                            System.err.println(lineNum + ": process run time must be non-negative.");
+                        }
+                        else {
+                            batch.add(tokens[1], vt);
+                        }
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+
+                    break;
+                // remove highest priority process from the queue
+                case "DE":
+                    if (tokens.length == 1) {
+                        String procName = queue.dequeue();
+				    		processOutWriter.println(procName);
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+
+                    break;
+                // find process
+                case "FP":
+                    if (tokens.length == 2) {
+                        boolean status = queue.findProcess(tokens[1]);
+						    processOutWriter.println(status);
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+
+                    break;
+                // remove process from queue
+                case "RP":
+                    if (tokens.length == 2) {
+                        boolean status = queue.removeProcess(tokens[1]);
+				    	    processOutWriter.println(status);
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+
+                    break;
+                // calculate preceding processes vt
+                case "PT":
+                    if (tokens.length == 2) {
+                        int value = queue.precedingProcessTime(tokens[1]);
+				            processOutWriter.println(value);
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+
+                    break;
+                // calculate succeeding processes vt
+                case "ST":
+                    if (tokens.length == 2) {
+                        int value = queue.succeedingProcessTime(tokens[1]);
+				            processOutWriter.println(value);
+                    }
+                    else {
+                        System.err.println(lineNum + ": incorrect number of tokens.");
+                    }
+
+                    break;
+                // print all processes
+                case "PA":
+                    queue.printAllProcesses(processOutWriter);
+                    break;
+                // quit
+                case "Q":
+                    return true;
+                default:
+                    System.err.println(lineNum + ": Unknown command.");
+            } // end of switch
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        } // end of try-catch block
+
+        return false;
+    } // end of processLine()
+
+
+    /**
+     * Open the output file of the file mode without autoflush, the results are collected in one large byte
+     * buffer and written out when it is full, on quit or at the end of the input.
+     *
+     * @param outputFilename Output file name.
+     *
+     * @throws FileNotFoundException Thrown if the file cannot be created.
+     */
+    private static PrintWriter openOutput(String outputFilename) throws FileNotFoundException {
+        return new PrintWriter(new OutputStreamWriter(
+            new BufferedOutputStream(new FileOutputStream(outputFilename), OUTPUT_BUFFER_BYTES)), false);
+    } // end of openOutput()
+
+
+    /**
+     * Main method.
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+
+        //
+        // Parse command line arguments.
+        //
+
+        // if no arguments, we print out help message and exit
+        if (args.length <= 0) {
+            usage(progName);
+        }
+
+        // Implementation type
+        String implementationType = args[0];
+
+        // determine which implementation to test
+        Runqueue queue = RunqueueFactory.create(implementationType);
+        if (queue == null) {
+            System.err.println("Unknown implmementation type.");
+            usage(progName);
+        }
+        // with -Drunqueue.probe=true, count the work of every operation and report it at the end
+        InstrumentedRunqueue instrumented = null;
+        if (Probe.ENABLED) {
+            instrumented = new InstrumentedRunqueue(queue);
+            queue = instrumented;
+        }
+
+        // Input file name.
+        String commandInputFilename = null;
+        // Output file name.
+        String outputFilename = null;
+        // Interactive mode flag (default is true or interactive mode)
+        boolean bInteractive = true;
+        // Input reader of the file mode
+        String inputReader = "text";
+
+        // Check which mode we are running
+        if (args.length >= 3) {
+            // File input / output mode
+            commandInputFilename = args[1];
+            outputFilename = args[2];
+            bInteractive = false;
+            if (args.length >= 4) {
+                inputReader = args[3];
+                if (!inputReader.equals("text") && !inputReader.equals("mmap") && !inputReader.equals("binary")) {
+                    System.err.println("Unknown input reader.");
+                    usage(progName);
+                }
+            }
+        }
+        else {
+            // Interactive mode
+            System.out.println("Running in Interative mode.");
+        }
+
+
+        // if not interactive mode
+        if (!bInteractive) {
+		    System.out.println("Loading commands from " + commandInputFilename + ".");
+
+            try {
+                assert(commandInputFilename != null && outputFilename != null);
+                if (inputReader.equals("mmap")) {
+                    try (FileChannel channel = FileChannel.open(Paths.get(commandInputFilename), StandardOpenOption.READ);
+                         PrintWriter outWriter = openOutput(outputFilename)) {
+                        // process the operations
+                        MappedCommandParser.processOperations(channel, queue, outWriter);
+                    }
+                }
+                else if (inputReader.equals("binary")) {
+                    try (FileInputStream in = new FileInputStream(commandInputFilename);
+                         PrintWriter outWriter = openOutput(outputFilename)) {
+                        // replay the binary trace
+                        BinaryTrace.processOperations(in, queue, outWriter);
+                    }
+                }
+                else {
+                    BufferedReader inReader = new BufferedReader(new FileReader(commandInputFilename));
+
+                    try (PrintWriter outWriter = openOutput(outputFilename)) {
+                        // process the operations
+                        processOperations(inReader, queue, outWriter);
+                    }
+                }
+            }
+            catch (NoSuchFileException ex) {
+                System.err.println("One of the specified files not found.");
+            }
+            catch (FileNotFoundException ex) {
+                System.err.println("One of the specified files not found.");
+            }
+            catch(IOException ex) {
+                System.err.println(ex.getMessage());
+            } // end of try-catch block
+        }
+        else {
+            // construct in and output streams/writers/readers, then process each operation.
+            try {
+                BufferedReader inReader = new BufferedReader(new InputStreamReader(System.in));
+
+                PrintWriter outWriter = new PrintWriter(System.out, true);
+
+                // process the operations
+                processOperations(inReader, queue, outWriter);
+            } catch (IOException ex) {
+                System.err.println(ex.getMessage());
+            } // end of try-catch block
+        } // end of else
+
+        if (instrumented != null) {
+            instrumented.report(new PrintWriter(System.err));
+        }
+    } // end of main()
+
+} // end of class RunqueueTester
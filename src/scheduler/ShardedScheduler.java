@@ -0,0 +1,366 @@
+package scheduler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Multi-queue scheduler with one Runqueue shard per worker, like the per-CPU runqueues of CFS.
+ * <p>
+ * Every shard is a plain (not thread-safe) Runqueue from the given factory, guarded by its own lock, so
+ * workers only contend when they touch the same shard. A worker dequeues from its own shard and, once it is
+ * empty, steals the head of the peer whose head has the lowest vt, the process that is most overdue across
+ * all the shards. A balancer, run on demand or
+ * periodically, migrates processes from the shard with the largest total vt to the one with the smallest.
+ * <p>
+ * A global directory maps every label to its current shard, so findProcess and removeProcess never have to
+ * search the shards. The directory entry of a process is only changed while holding the lock of its shard.
+ */
+public class ShardedScheduler {
+    private final Shard[] shards;
+    private final ConcurrentHashMap<String, Placement> directory;
+    private ScheduledExecutorService balancer;
+
+    /**
+     * Constructs a scheduler with empty shards
+     *
+     * @param workers Number of workers, each worker gets its own shard.
+     * @param factory Creates the Runqueue of every shard.
+     */
+    public ShardedScheduler(int workers, Supplier<Runqueue> factory) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive.");
+        }
+        shards = new Shard[workers];
+        for (int i = 0; i < workers; i++) {
+            shards[i] = new Shard(factory.get());
+        }
+        directory = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Enqueue the process on the shard with the smallest total vt.
+     *
+     * @param procLabel Process label to be added.
+     * @param vt Vruntime of added process.
+     *
+     * @return True if the process was added, false if the label already exists.
+     */
+    public boolean enqueue(String procLabel, int vt) {
+        return enqueue(lightestShard(), procLabel, vt);
+    }
+
+    /**
+     * Enqueue the process on the shard of the worker.
+     *
+     * @param worker Worker index.
+     * @param procLabel Process label to be added.
+     * @param vt Vruntime of added process.
+     *
+     * @return True if the process was added, false if the label already exists.
+     */
+    public boolean enqueue(int worker, String procLabel, int vt) {
+        Shard shard = shards[worker];
+        shard.lock.lock();
+        try {
+            if (directory.putIfAbsent(procLabel, new Placement(worker, vt)) != null) {
+                return false;
+            }
+            shard.add(procLabel, vt);
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Dequeue the next process of the worker, stealing from a peer when the local shard is empty.
+     *
+     * @param worker Worker index.
+     *
+     * @return Label of the dequeued process, or an empty string if every shard is empty.
+     */
+    public String dequeue(int worker) {
+        String label = dequeueFrom(worker);
+        if (!label.isEmpty()) {
+            return label;
+        }
+        //Idle worker, steal the lowest head vt. A victim a racing worker got to first has its head refreshed
+        //before its lock is released, so the next attempt sees its new head
+        for (int attempt = 1; attempt < shards.length; attempt++) {
+            int victim = -1;
+            long victimVt = Shard.EMPTY;
+            for (int i = 0; i < shards.length; i++) {
+                long headVt = shards[i].headVt;
+                if (i != worker && headVt < victimVt) {
+                    victim = i;
+                    victimVt = headVt;
+                }
+            }
+            if (victim == -1) {
+                break;
+            }
+            label = dequeueFrom(victim);
+            if (!label.isEmpty()) {
+                return label;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * @param procLabel Process label to find.
+     *
+     * @return True if the process is in any shard.
+     */
+    public boolean findProcess(String procLabel) {
+        return directory.containsKey(procLabel);
+    }
+
+    /**
+     * Remove the process from whichever shard holds it.
+     *
+     * @param procLabel Process to remove.
+     *
+     * @return True if successfully deleted, otherwise false (the process does not exist).
+     */
+    public boolean removeProcess(String procLabel) {
+        while (true) {
+            Placement placement = directory.get(procLabel);
+            if (placement == null) {
+                return false;
+            }
+            Shard shard = shards[placement.shard];
+            shard.lock.lock();
+            try {
+                //The process may have been migrated or dequeued before the lock was taken
+                if (directory.get(procLabel) == placement) {
+                    shard.remove(procLabel, placement.vt);
+                    directory.remove(procLabel);
+                    refreshHead(shard);
+                    return true;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @param procLabel Process label to find.
+     *
+     * @return Index of the shard holding the process, or -1 if it does not exist.
+     */
+    public int shardOf(String procLabel) {
+        Placement placement = directory.get(procLabel);
+        return placement == null ? -1 : placement.shard;
+    }
+
+    /**
+     * @return Number of shards.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param shard Shard index.
+     *
+     * @return Number of processes in the shard.
+     */
+    public int shardSize(int shard) {
+        return shards[shard].size;
+    }
+
+    /**
+     * @param shard Shard index.
+     *
+     * @return Total vt of the processes in the shard.
+     */
+    public long shardLoad(int shard) {
+        return shards[shard].totalTime;
+    }
+
+    /**
+     * Migrate processes from the shard with the largest total vt to the one with the smallest until moving
+     * the next process would not narrow the gap anymore. The lowest-vt processes are moved first.
+     *
+     * @return Number of migrated processes.
+     */
+    public int rebalance() {
+        int migrated = 0;
+        while (true) {
+            int heavy = 0;
+            int light = 0;
+            for (int i = 1; i < shards.length; i++) {
+                if (shards[i].totalTime > shards[heavy].totalTime) {
+                    heavy = i;
+                }
+                if (shards[i].totalTime < shards[light].totalTime) {
+                    light = i;
+                }
+            }
+            if (heavy == light || !migrate(heavy, light)) {
+                return migrated;
+            }
+            migrated++;
+        }
+    }
+
+    /**
+     * Run rebalance periodically on a background thread.
+     *
+     * @param periodMillis Time between two rebalances in milliseconds.
+     */
+    public synchronized void startBalancer(long periodMillis) {
+        if (balancer != null) {
+            return;
+        }
+        balancer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ShardedScheduler-balancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        balancer.scheduleAtFixedRate(this::rebalance, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the periodic balancer if it is running.
+     */
+    public synchronized void shutdown() {
+        if (balancer != null) {
+            balancer.shutdownNow();
+            balancer = null;
+        }
+    }
+
+    private String dequeueFrom(int index) {
+        Shard shard = shards[index];
+        if (shard.size == 0) {
+            return "";
+        }
+        shard.lock.lock();
+        try {
+            String label = shard.queue.dequeue();
+            if (!label.isEmpty()) {
+                shard.taken(directory.remove(label).vt);
+                refreshHead(shard);
+            }
+            return label;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Move the lowest-vt process of the heavy shard to the light shard, both locks are taken in index order.
+     *
+     * @return False if the move would not narrow the gap, the process then stays in the heavy shard.
+     */
+    private boolean migrate(int heavy, int light) {
+        Shard from = shards[heavy];
+        Shard to = shards[light];
+        Shard first = heavy < light ? from : to;
+        Shard second = heavy < light ? to : from;
+        first.lock.lock();
+        second.lock.lock();
+        try {
+            long gap = from.totalTime - to.totalTime;
+            String label = from.queue.peek();
+            if (label.isEmpty()) {
+                return false;
+            }
+            Placement placement = directory.get(label);
+            if (2L * placement.vt >= gap) {
+                //Moving it would only swap the roles of the two shards, it stays at the head of its shard
+                return false;
+            }
+            from.queue.dequeue();
+            from.taken(placement.vt);
+            to.add(label, placement.vt);
+            directory.put(label, new Placement(light, placement.vt));
+            refreshHead(from);
+            return true;
+        } finally {
+            second.lock.unlock();
+            first.lock.unlock();
+        }
+    }
+
+    /**
+     * Read the vt of the new head of the shard from the directory, its lock must be held
+     */
+    private void refreshHead(Shard shard) {
+        String head = shard.queue.peek();
+        shard.headVt = head.isEmpty() ? Shard.EMPTY : directory.get(head).vt;
+    }
+
+    private int lightestShard() {
+        int light = 0;
+        for (int i = 1; i < shards.length; i++) {
+            if (shards[i].totalTime < shards[light].totalTime) {
+                light = i;
+            }
+        }
+        return light;
+    }
+
+    /**
+     * One Runqueue with its lock, load counters and head vt, which are only written under the lock
+     */
+    static class Shard {
+        /**
+         * headVt of an empty shard, above every int vt
+         */
+        static final long EMPTY = Long.MAX_VALUE;
+
+        final Runqueue queue;
+        final ReentrantLock lock;
+        volatile int size;
+        volatile long totalTime;
+        volatile long headVt;
+
+        Shard(Runqueue queue) {
+            this.queue = queue;
+            this.lock = new ReentrantLock();
+            this.headVt = EMPTY;
+        }
+
+        void add(String procLabel, int vt) {
+            queue.enqueue(procLabel, vt);
+            size++;
+            totalTime += vt;
+            //A new process only becomes the head with a lower vt, a tie goes after the current head
+            if (vt < headVt) {
+                headVt = vt;
+            }
+        }
+
+        void remove(String procLabel, int vt) {
+            queue.removeProcess(procLabel);
+            taken(vt);
+        }
+
+        void taken(int vt) {
+            size--;
+            totalTime -= vt;
+        }
+    }
+
+    /**
+     * Directory entry, a new entry is created on every migration so that a stale entry is never reused
+     */
+    static class Placement {
+        final int shard;
+        final int vt;
+
+        Placement(int shard, int vt) {
+            this.shard = shard;
+            this.vt = vt;
+        }
+    }
+
+} // end of class ShardedScheduler
@@ -0,0 +1,255 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static scheduler.ConcurrentEvalSupport.PROCESS_PER_THREAD;
+import static scheduler.ConcurrentEvalSupport.THROUGHPUT_MILLIS;
+import static scheduler.ConcurrentEvalSupport.runAll;
+
+
+/**
+ * Multithreaded stress and dequeue throughput test of the ShardedScheduler.
+ * <p>
+ * Every process label is "P" + id, so that each thread can record which processes it saw in a shared
+ * AtomicIntegerArray and the test can check that no process is lost or handed out twice, whether it was
+ * dequeued locally, stolen or migrated by the balancer. The throughput of per-worker shards against one shared
+ * shard is only printed, no speedup is asserted.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ShardedSchedulerEval {
+    /**
+     * Implementation of the shards
+     */
+    private static final String SHARD_QUEUE = "heap";
+
+    @Order(1)
+    @DisplayName("Every process is dequeued exactly once while idle workers steal")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void stealExactlyOnce(int threads) throws Exception {
+        ShardedScheduler scheduler = new ShardedScheduler(threads, () -> RunqueueFactory.create(SHARD_QUEUE));
+        int total = threads * PROCESS_PER_THREAD;
+        //Everything on shard 0, so every other worker only gets processes by stealing
+        for (int i = 0; i < total; i++) {
+            assertTrue(scheduler.enqueue(0, "P" + i, 1 + i % 100));
+        }
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong dequeued = new AtomicLong();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            tasks.add(() -> {
+                String label;
+                while (!(label = scheduler.dequeue(worker)).isEmpty()) {
+                    //A process handed out twice would be counted twice here
+                    seen.incrementAndGet(Integer.parseInt(label.substring(1)));
+                    dequeued.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(total, dequeued.get());
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "P" + i);
+        }
+        assertShardsEmpty(scheduler);
+    }
+
+    @Order(2)
+    @DisplayName("Racing removeProcess, dequeue and migrations take every process out exactly once")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void removeDuringMigration(int threads) throws Exception {
+        int shards = Math.max(2, threads);
+        ShardedScheduler scheduler = new ShardedScheduler(shards, () -> RunqueueFactory.create(SHARD_QUEUE));
+        int total = threads * PROCESS_PER_THREAD;
+        //Uneven shards, so the balancer keeps migrating while the processes are taken out
+        Random random = new Random(threads);
+        for (int i = 0; i < total; i++) {
+            scheduler.enqueue(i % 3 == 0 ? 1 : 0, "P" + i, 1 + random.nextInt(100));
+        }
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong taken = new AtomicLong();
+        scheduler.startBalancer(1L);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int remover = t;
+                tasks.add(() -> {
+                    //Every remover walks all the labels from a different offset
+                    for (int i = 0; i < total; i++) {
+                        int id = (i + remover * PROCESS_PER_THREAD) % total;
+                        if (scheduler.removeProcess("P" + id)) {
+                            seen.incrementAndGet(id);
+                            taken.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+                final int worker = t % shards;
+                tasks.add(() -> {
+                    while (taken.get() < total) {
+                        String label = scheduler.dequeue(worker);
+                        if (!label.isEmpty()) {
+                            seen.incrementAndGet(Integer.parseInt(label.substring(1)));
+                            taken.incrementAndGet();
+                        }
+                        scheduler.rebalance();
+                    }
+                    return null;
+                });
+            }
+            runAll(tasks);
+        } finally {
+            scheduler.shutdown();
+        }
+
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "P" + i);
+            assertFalse(scheduler.findProcess("P" + i));
+        }
+        assertShardsEmpty(scheduler);
+    }
+
+    @Order(3)
+    @DisplayName("The balancer keeps the FIFO order of the processes with the same vt in every shard")
+    @Test
+    void balancerKeepsFifo() {
+        ShardedScheduler pair = new ShardedScheduler(2, () -> RunqueueFactory.create(SHARD_QUEUE));
+        pair.enqueue(0, "A", 10);
+        pair.enqueue(0, "B", 10);
+        //Moving A would only swap the loads of the shards, nothing moves and A stays first
+        assertEquals(0, pair.rebalance());
+        assertEquals("A", pair.dequeue(0));
+        assertEquals("B", pair.dequeue(0));
+
+        int shards = 4;
+        ShardedScheduler scheduler = new ShardedScheduler(shards, () -> RunqueueFactory.create(SHARD_QUEUE));
+        int total = 10000;
+        for (int i = 0; i < total; i++) {
+            scheduler.enqueue(0, "P" + i, 1 + i % 5);
+        }
+        for (int round = 0; round < 10; round++) {
+            scheduler.rebalance();
+        }
+        assertTrue(scheduler.shardSize(1) > 0, "The balancer did not migrate anything");
+        //Drain every shard on its own, the processes of a shard must come out by vt, then by enqueue order
+        int drained = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            int lastVt = Integer.MIN_VALUE;
+            int lastId = -1;
+            while (scheduler.shardSize(shard) > 0) {
+                String label = scheduler.dequeue(shard);
+                int id = Integer.parseInt(label.substring(1));
+                int vt = 1 + id % 5;
+                assertTrue(vt > lastVt || (vt == lastVt && id > lastId), "Shard " + shard + ": " + label
+                        + " after P" + lastId);
+                lastVt = vt;
+                lastId = id;
+                drained++;
+            }
+        }
+        assertEquals(total, drained);
+    }
+
+    @Order(4)
+    @DisplayName("An idle worker steals the head with the lowest vt, not the largest backlog")
+    @Test
+    void stealLowestHead() {
+        ShardedScheduler scheduler = new ShardedScheduler(4, () -> RunqueueFactory.create(SHARD_QUEUE));
+        for (int i = 0; i < 10; i++) {
+            scheduler.enqueue(1, "B" + i, 50 + i);
+        }
+        scheduler.enqueue(2, "C0", 30);
+        scheduler.enqueue(2, "C1", 55);
+        scheduler.enqueue(3, "D0", 30);
+        //C0 and D0 tie, either may go first, then the heads of shard 1 and shard 2 interleave by vt
+        List<String> stolen = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            stolen.add(scheduler.dequeue(0));
+        }
+        assertTrue(stolen.subList(0, 2).containsAll(Arrays.asList("C0", "D0")), stolen.toString());
+        assertEquals(Arrays.asList("B0", "B1"), stolen.subList(2, 4));
+        //Once the heads up to vt 55 are removed, shard 1 starts at 56 and C1 goes first
+        for (int i = 2; i < 6; i++) {
+            assertTrue(scheduler.removeProcess("B" + i));
+        }
+        assertEquals("C1", scheduler.dequeue(0));
+        for (int i = 6; i < 10; i++) {
+            assertEquals("B" + i, scheduler.dequeue(0));
+        }
+        assertEquals("", scheduler.dequeue(0));
+        assertShardsEmpty(scheduler);
+    }
+
+    @Order(5)
+    @DisplayName("Dequeue throughput of per-worker shards against one shared shard")
+    @ParameterizedTest(name = "{index} => Threads = {0}")
+    @MethodSource("scheduler.ConcurrentEvalSupport#threadProvider")
+    void shardedAgainstShared(int threads) throws Exception {
+        double shared = dequeueThroughput(threads, 1);
+        double sharded = dequeueThroughput(threads, threads);
+        System.out.printf("Threads: %s, One shard: %.0f dequeues/s, %s shards: %.0f dequeues/s, Speedup: %.2f\n",
+                threads, shared, threads, sharded, sharded / shared);
+        assertTrue(sharded > 0);
+    }
+
+    /**
+     * Every worker dequeues from its shard and enqueues a new process, so the shards keep their size
+     *
+     * @return Dequeues per second of all the workers together.
+     */
+    private static double dequeueThroughput(int threads, int shards) throws Exception {
+        ShardedScheduler scheduler = new ShardedScheduler(shards, () -> RunqueueFactory.create(SHARD_QUEUE));
+        for (int i = 0; i < PROCESS_PER_THREAD; i++) {
+            scheduler.enqueue(i % shards, "S" + i, i % 100);
+        }
+        AtomicLong dequeues = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(THROUGHPUT_MILLIS);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            tasks.add(() -> {
+                int shard = worker % shards;
+                Random random = new Random(worker);
+                long count = 0L;
+                long next = 0L;
+                while (System.nanoTime() < deadline) {
+                    if (!scheduler.dequeue(shard).isEmpty()) {
+                        count++;
+                    }
+                    scheduler.enqueue(shard, "T" + worker + "-" + next++, 1 + random.nextInt(100));
+                }
+                dequeues.addAndGet(count);
+                return null;
+            });
+        }
+        runAll(tasks);
+        return dequeues.get() * 1000.0 / THROUGHPUT_MILLIS;
+    }
+
+    private static void assertShardsEmpty(ShardedScheduler scheduler) {
+        for (int shard = 0; shard < scheduler.shardCount(); shard++) {
+            assertEquals(0, scheduler.shardSize(shard), "Shard " + shard);
+            assertEquals(0L, scheduler.shardLoad(shard), "Shard " + shard);
+        }
+    }
+}
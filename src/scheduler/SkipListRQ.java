@@ -0,0 +1,529 @@
+package scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the Runqueue interface using an indexable Skip List.
+ * <p>
+ * The bottom level is the same doubly linked ordered list as OrderedLinkedListRQ. The express lanes on
+ * top of it are built probabilistically, and every lane link stores its span (how many processes it jumps
+ * over) and the vt sum of those processes, so the insert position and the preceding/succeeding process time
+ * are found in expected O(log n). Processes with the same vt keep the FIFO order through an insertion
+ * sequence number.
+ */
+public class SkipListRQ implements Runqueue {
+    private static final int MAX_LEVEL = 32;
+
+    /**
+     * Probability 1/4 of promoting a process to the next lane, tested on two random bits
+     */
+    private static final int PROMOTE_MASK = 3;
+
+    /**
+     * Sentinel in front of the first process, holding the head of every lane
+     */
+    private final SkipNode header;
+    private SkipNode last;
+
+    /**
+     * Number of lanes currently in use
+     */
+    private int level;
+    private int size;
+    private long totalTime;
+
+    private final LabelIndex<SkipNode> labelIndex;
+    private long nextSeq;
+
+    /**
+     * Scratch arrays reused by every update, update[i] is the last node before the target on lane i
+     */
+    private final SkipNode[] update;
+    private final int[] rank;
+    private final long[] preSum;
+    private long randomSeed;
+
+    /**
+     * Constructs empty skip list
+     */
+    public SkipListRQ() {
+        header = new SkipNode(null, 0, -1L, MAX_LEVEL);
+        last = null;
+        level = 1;
+        size = 0;
+        totalTime = 0L;
+        labelIndex = new LabelIndex<>();
+        nextSeq = 0L;
+        update = new SkipNode[MAX_LEVEL];
+        rank = new int[MAX_LEVEL];
+        preSum = new long[MAX_LEVEL];
+        randomSeed = 0x9E3779B97F4A7C15L;
+    }  // end of SkipListRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (labelIndex.containsKey(procLabel)) {
+            return;
+        }
+        SkipNode node = new SkipNode(procLabel, vt, nextSeq++, randomLevel());
+        insertNode(node);
+        labelIndex.put(procLabel, node);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        SkipNode first = header.next[0];
+        if (first == null) {
+            return "";
+        }
+        for (int i = 0; i < level; i++) {
+            update[i] = header;
+        }
+        deleteNode(first);
+        labelIndex.remove(first.label);
+        return first.label;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return labelIndex.containsKey(procLabel);
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        SkipNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return false;
+        }
+        findUpdate(node);
+        deleteNode(node);
+        labelIndex.remove(procLabel);
+        return true;
+    } // End of removeProcess()
+
+
+    /**
+     * Unlink the node and link it in again at its new place, keeping its level, both in expected O(log n).
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        SkipNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return false;
+        }
+        findUpdate(node);
+        deleteNode(node);
+        node.vt = vt;
+        node.seq = nextSeq++;
+        insertNode(node);
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        SkipNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        return (int) precedingSum(node);
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        SkipNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        return (int) (totalTime - precedingSum(node) - node.vt);
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        return new SkipListCursor(header.next[0]);
+    } // end of cursor()
+
+
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        SkipNode node = labelIndex.get(procLabel);
+        return node == null ? ProcessCursor.EMPTY : new SkipListCursor(node);
+    } // end of cursor()
+
+
+    /**
+     * Descend the lanes to the last process with a vt below the given vt, in O(log n).
+     */
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        SkipNode current = header;
+        for (int i = level - 1; i >= 0; i--) {
+            while (current.next[i] != null && current.next[i].vt < vt) {
+                Probe.compare();
+                Probe.visit();
+                current = current.next[i];
+            }
+        }
+        return new SkipListCursor(current.next[0]);
+    } // end of cursorFromVruntime()
+
+    /**
+     * A batch smaller than the queue is inserted one by one. A larger batch is sorted once, merged with the
+     * bottom level and all the lanes are relinked in a single O(n) pass.
+     */
+    @Override
+    public void enqueueAll(String[] procLabels, int[] vts, int length) {
+        if (length < 0 || length > procLabels.length || length > vts.length) {
+            throw new IllegalArgumentException("length must be within the length of procLabels and vts.");
+        }
+        if (length < size) {
+            for (int i = 0; i < length; i++) {
+                enqueue(procLabels[i], vts[i]);
+            }
+            return;
+        }
+        labelIndex.ensureCapacity(labelIndex.size() + length);
+        //Skip the labels already in the queue or earlier in the batch, like repeated enqueue would
+        SkipNode[] batch = new SkipNode[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!labelIndex.containsKey(procLabels[i])) {
+                SkipNode node = new SkipNode(procLabels[i], vts[i], nextSeq++, randomLevel());
+                labelIndex.put(procLabels[i], node);
+                batch[count++] = node;
+            }
+        }
+        //The sort is stable, so the batch keeps its array order among the same vt
+        Arrays.sort(batch, 0, count, (a, b) -> Integer.compare(a.vt, b.vt));
+        //Every process of the queue was enqueued before the batch, so it goes first among the same vt
+        SkipNode[] merged = new SkipNode[size + count];
+        SkipNode current = header.next[0];
+        int next = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (next == count || (current != null && current.vt <= batch[next].vt)) {
+                merged[i] = current;
+                current = current.next[0];
+            } else {
+                merged[i] = batch[next++];
+            }
+        }
+        relink(merged);
+    } // end of enqueueAll()
+
+
+    /**
+     * Unlink the first n processes at once, every lane of the header is moved past them in one walk.
+     */
+    @Override
+    public String[] dequeueBatch(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be non-negative.");
+        }
+        int count = Math.min(n, size);
+        String[] labels = new String[count];
+        long removedSum = 0L;
+        SkipNode current = header.next[0];
+        for (int i = 0; i < count; i++) {
+            labels[i] = current.label;
+            labelIndex.remove(current.label);
+            removedSum += current.vt;
+            current = current.next[0];
+        }
+        for (int i = 0; i < level; i++) {
+            //Find the last node of the lane within the removed prefix, the header link then jumps past it
+            int position = 0;
+            long sum = 0L;
+            SkipNode node = header;
+            while (node.next[i] != null && position + node.span[i] <= count) {
+                position += node.span[i];
+                sum += node.sum[i];
+                node = node.next[i];
+            }
+            header.next[i] = node.next[i];
+            header.span[i] = position + node.span[i] - count;
+            header.sum[i] = sum + node.sum[i] - removedSum;
+        }
+        if (current != null) {
+            current.prev = null;
+        } else {
+            last = null;
+        }
+        while (level > 1 && header.next[level - 1] == null) {
+            level--;
+        }
+        size -= count;
+        totalTime -= removedSum;
+        return labels;
+    } // end of dequeueBatch()
+
+    /**
+     * @return The number of processes in the queue.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Rank of the process in the queue starting from 1, or -1 if it does not exist.
+     *
+     * @param procLabel Process label to find.
+     *
+     * @return Position of the process in the dequeue order.
+     */
+    public int rankOf(String procLabel) {
+        SkipNode node = labelIndex.get(procLabel);
+        if (node == null) {
+            return -1;
+        }
+        int position = 0;
+        SkipNode current = header;
+        for (int i = level - 1; i >= 0; i--) {
+            while (current.next[i] != null && !precedes(node, current.next[i])) {
+                Probe.visit();
+                position += current.span[i];
+                current = current.next[i];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Walk down the lanes and sum the vt of every process ordered before the target
+     */
+    private long precedingSum(SkipNode target) {
+        long sum = 0L;
+        SkipNode current = header;
+        for (int i = level - 1; i >= 0; i--) {
+            while (current.next[i] != null && precedes(current.next[i], target)) {
+                Probe.visit();
+                sum += current.sum[i];
+                current = current.next[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Unlink the node, the update array must hold its predecessor on every lane
+     */
+    /**
+     * Link the node in after every process with a vt up to its vt, on as many lanes as its next array has
+     */
+    private void insertNode(SkipNode node) {
+        //The node goes after every existing process with the same vt, so stop at the last vt <= its vt
+        SkipNode current = header;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            preSum[i] = i == level - 1 ? 0L : preSum[i + 1];
+            while (current.next[i] != null && current.next[i].vt <= node.vt) {
+                Probe.compare();
+                Probe.visit();
+                rank[i] += current.span[i];
+                preSum[i] += current.sum[i];
+                current = current.next[i];
+            }
+            update[i] = current;
+        }
+
+        int nodeLevel = node.next.length;
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                preSum[i] = 0L;
+                update[i] = header;
+                //A link to the end spans every remaining process plus the virtual tail
+                header.span[i] = size + 1;
+                header.sum[i] = totalTime;
+            }
+            level = nodeLevel;
+        }
+
+        for (int i = 0; i < nodeLevel; i++) {
+            int skipped = rank[0] - rank[i];
+            long skippedSum = preSum[0] - preSum[i];
+            node.next[i] = update[i].next[i];
+            node.span[i] = update[i].span[i] - skipped;
+            node.sum[i] = update[i].sum[i] - skippedSum;
+            update[i].next[i] = node;
+            update[i].span[i] = skipped + 1;
+            update[i].sum[i] = skippedSum + node.vt;
+        }
+        //The lanes above the node now jump over one more process
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+            update[i].sum[i] += node.vt;
+        }
+
+        node.prev = update[0] == header ? null : update[0];
+        if (node.next[0] != null) {
+            node.next[0].prev = node;
+        } else {
+            last = node;
+        }
+        size++;
+        totalTime += node.vt;
+    }
+
+    /**
+     * Fill update with the last node before the given node on every lane
+     */
+    private void findUpdate(SkipNode node) {
+        SkipNode current = header;
+        for (int i = level - 1; i >= 0; i--) {
+            while (current.next[i] != null && precedes(current.next[i], node)) {
+                Probe.visit();
+                current = current.next[i];
+            }
+            update[i] = current;
+        }
+    }
+
+    private void deleteNode(SkipNode node) {
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].sum[i] += node.sum[i] - node.vt;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+                update[i].sum[i] -= node.vt;
+            }
+        }
+        if (node.next[0] != null) {
+            node.next[0].prev = node.prev;
+        } else {
+            last = node.prev;
+        }
+        while (level > 1 && header.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        totalTime -= node.vt;
+    }
+
+    /**
+     * Rebuild every lane from the sorted nodes, each node keeps the level it was created with
+     */
+    private void relink(SkipNode[] nodes) {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            update[i] = header;
+            rank[i] = 0;
+            preSum[i] = 0L;
+        }
+        int newLevel = 1;
+        long total = 0L;
+        for (int position = 1; position <= nodes.length; position++) {
+            SkipNode node = nodes[position - 1];
+            total += node.vt;
+            node.prev = position == 1 ? null : nodes[position - 2];
+            for (int i = 0; i < node.next.length; i++) {
+                update[i].next[i] = node;
+                update[i].span[i] = position - rank[i];
+                update[i].sum[i] = total - preSum[i];
+                update[i] = node;
+                rank[i] = position;
+                preSum[i] = total;
+            }
+            newLevel = Math.max(newLevel, node.next.length);
+        }
+        //Close every lane, the links to the end span the remaining processes plus the virtual tail
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            update[i].next[i] = null;
+            update[i].span[i] = nodes.length + 1 - rank[i];
+            update[i].sum[i] = total - preSum[i];
+        }
+        last = nodes.length == 0 ? null : nodes[nodes.length - 1];
+        level = newLevel;
+        size = nodes.length;
+        totalTime = total;
+    }
+
+    /**
+     * Order by vt first, then by the insertion sequence to keep FIFO among the same vt
+     */
+    private static boolean precedes(SkipNode a, SkipNode b) {
+        Probe.compare();
+        if (a.vt != b.vt) {
+            return a.vt < b.vt;
+        }
+        return a.seq < b.seq;
+    }
+
+    private int randomLevel() {
+        //xorshift64 is enough to build the lanes and much cheaper than java.util.Random
+        long x = randomSeed;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        randomSeed = x;
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && (x & PROMOTE_MASK) == 0) {
+            nodeLevel++;
+            x >>>= 2;
+        }
+        return nodeLevel;
+    }
+
+    /**
+     * Follows the bottom level from the given node, in constant memory
+     */
+    static class SkipListCursor implements ProcessCursor {
+        private SkipNode nextNode;
+        private SkipNode current;
+
+        SkipListCursor(SkipNode from) {
+            nextNode = from;
+        }
+
+        @Override
+        public boolean next() {
+            if (nextNode == null) {
+                return false;
+            }
+            Probe.visit();
+            current = nextNode;
+            nextNode = current.next[0];
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return current.label;
+        }
+
+        @Override
+        public int vt() {
+            return current.vt;
+        }
+    }
+
+    static class SkipNode {
+        String label;
+        int vt;
+        long seq;
+        SkipNode prev;
+        SkipNode[] next;
+        /*
+         *   span[i] and sum[i] describe the processes jumped over by next[i], the next[i] itself included
+         */
+        int[] span;
+        long[] sum;
+
+        SkipNode(String label, int vt, long seq, int level) {
+            this.label = label;
+            this.vt = vt;
+            this.seq = seq;
+            this.next = new SkipNode[level];
+            this.span = new int[level];
+            this.sum = new long[level];
+        }
+    }
+
+} // end of class SkipListRQ
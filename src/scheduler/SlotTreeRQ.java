@@ -0,0 +1,392 @@
+package scheduler;
+
+
+/**
+ * AVL Tree Runqueue over interned process ids, independent of where the node records are stored.
+ * <p>
+ * Every label is interned into a dense int id by a LabelInterner and the tree links are ids, id 0 being the
+ * null link. The vt, sequence, children, height and subtree vt sum of a process are read and written through
+ * the slot accessors, which the subclasses implement on top of their own storage. The NIL slot 0 must always
+ * read as height 0 and sum 0. Released ids are recycled by the interner, so the storage only grows when
+ * the number of live processes does.
+ */
+public abstract class SlotTreeRQ implements Runqueue {
+    protected static final int NIL = 0;
+
+    protected final LabelInterner interner;
+    private int root;
+    private long nextSeq;
+
+    /**
+     * Constructs empty queue
+     */
+    protected SlotTreeRQ() {
+        interner = new LabelInterner();
+        root = NIL;
+        nextSeq = 0L;
+    }  // end of SlotTreeRQ()
+
+
+    @Override
+    public void enqueue(String procLabel, int vt) {
+        //Do nothing if the process already exist
+        if (interner.idOf(procLabel) != NIL) {
+            return;
+        }
+        int id = interner.intern(procLabel);
+        if (interner.capacity() > slotCapacity()) {
+            growSlots(interner.capacity());
+        }
+        initSlot(id, vt, nextSeq++);
+        root = insert(root, id);
+    } // end of enqueue()
+
+
+    @Override
+    public String dequeue() {
+        if (root == NIL) {
+            return "";
+        }
+        int min = findMin(root);
+        root = removeMin(root);
+        String deLabel = interner.label(min);
+        interner.release(min);
+        return deLabel;
+    } // end of dequeue()
+
+
+    @Override
+    public boolean findProcess(String procLabel) {
+        return interner.idOf(procLabel) != NIL;
+    } // end of findProcess()
+
+
+    @Override
+    public boolean removeProcess(String procLabel) {
+        int id = interner.idOf(procLabel);
+        if (id == NIL) {
+            return false;
+        }
+        root = remove(root, id);
+        interner.release(id);
+        return true;
+    } // end of removeProcess()
+
+
+    /**
+     * Remove the slot and insert it again with the new vt and a new seq, the id is kept, both in O(log n).
+     */
+    @Override
+    public boolean updateVruntime(String procLabel, int vt) {
+        int id = interner.idOf(procLabel);
+        if (id == NIL) {
+            return false;
+        }
+        root = remove(root, id);
+        initSlot(id, vt, nextSeq++);
+        root = insert(root, id);
+        return true;
+    } // end of updateVruntime()
+
+
+    @Override
+    public int precedingProcessTime(String procLabel) {
+        int id = interner.idOf(procLabel);
+        if (id == NIL) {
+            return -1;
+        }
+        return (int) precedingSum(id);
+    } // end of precedingProcessTime()
+
+
+    @Override
+    public int succeedingProcessTime(String procLabel) {
+        int id = interner.idOf(procLabel);
+        if (id == NIL) {
+            return -1;
+        }
+        return (int) (sum(root) - precedingSum(id) - vt(id));
+    } // end of succeedingProcessTime()
+
+
+    @Override
+    public ProcessCursor cursor() {
+        SlotCursor cursor = new SlotCursor(height(root));
+        cursor.pushLeftSpine(root);
+        return cursor;
+    } // end of cursor()
+
+
+    /**
+     * Descend from the root to the process, keeping the ancestors it is on the left of, which are the
+     * processes that follow it.
+     */
+    @Override
+    public ProcessCursor cursor(String procLabel) {
+        int id = interner.idOf(procLabel);
+        if (id == NIL) {
+            return ProcessCursor.EMPTY;
+        }
+        SlotCursor cursor = new SlotCursor(height(root));
+        int current = root;
+        while (current != id) {
+            Probe.visit();
+            if (compare(id, current) < 0) {
+                cursor.push(current);
+                current = left(current);
+            } else {
+                current = right(current);
+            }
+        }
+        cursor.push(id);
+        return cursor;
+    } // end of cursor()
+
+
+    /**
+     * Descend from the root towards the first process with a vt of at least the given vt, keeping the
+     * ancestors the search goes left of, in O(log n).
+     */
+    @Override
+    public ProcessCursor cursorFromVruntime(int vt) {
+        SlotCursor cursor = new SlotCursor(height(root));
+        int current = root;
+        while (current != NIL) {
+            Probe.compare();
+            Probe.visit();
+            if (vt(current) >= vt) {
+                cursor.push(current);
+                current = left(current);
+            } else {
+                current = right(current);
+            }
+        }
+        return cursor;
+    } // end of cursorFromVruntime()
+
+    /**
+     * @return The number of processes in the queue.
+     */
+    public int size() {
+        return interner.size();
+    }
+
+    /**
+     * @return Number of slots the storage can hold, slot ids are in [0, slotCapacity()).
+     */
+    protected abstract int slotCapacity();
+
+    /**
+     * Grow the storage to hold at least the given number of slots, keeping the existing slots.
+     */
+    protected abstract void growSlots(int capacity);
+
+    /**
+     * Reset the slot to a leaf holding the process.
+     */
+    protected abstract void initSlot(int id, int vt, long seq);
+
+    protected abstract int vt(int id);
+
+    protected abstract long seq(int id);
+
+    protected abstract int left(int id);
+
+    protected abstract void setLeft(int id, int left);
+
+    protected abstract int right(int id);
+
+    protected abstract void setRight(int id, int right);
+
+    protected abstract int height(int id);
+
+    protected abstract long sum(int id);
+
+    /**
+     * Store the height and subtree vt sum of the slot.
+     */
+    protected abstract void setAugment(int id, int height, long sum);
+
+    private long precedingSum(int target) {
+        long sum = 0L;
+        int current = root;
+        while (current != NIL) {
+            Probe.visit();
+            int cmp = compare(target, current);
+            if (cmp < 0) {
+                current = left(current);
+            } else if (cmp > 0) {
+                sum += sum(left(current)) + vt(current);
+                current = right(current);
+            } else {
+                return sum + sum(left(current));
+            }
+        }
+        return sum;
+    }
+
+    private int insert(int node, int id) {
+        if (node == NIL) {
+            return id;
+        }
+        Probe.visit();
+        if (compare(id, node) < 0) {
+            setLeft(node, insert(left(node), id));
+        } else {
+            setRight(node, insert(right(node), id));
+        }
+        return rebalance(node);
+    }
+
+    private int remove(int node, int target) {
+        if (node == NIL) {
+            return NIL;
+        }
+        Probe.visit();
+        int cmp = compare(target, node);
+        if (cmp < 0) {
+            setLeft(node, remove(left(node), target));
+        } else if (cmp > 0) {
+            setRight(node, remove(right(node), target));
+        } else {
+            //Case 1 & 2: at most one child, the child takes the place of the node
+            if (left(node) == NIL) {
+                return right(node);
+            }
+            if (right(node) == NIL) {
+                return left(node);
+            }
+            //Case 3: two children, the successor takes the place of the node
+            int successor = findMin(right(node));
+            setRight(successor, removeMin(right(node)));
+            setLeft(successor, left(node));
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private int removeMin(int node) {
+        if (left(node) == NIL) {
+            return right(node);
+        }
+        setLeft(node, removeMin(left(node)));
+        return rebalance(node);
+    }
+
+    private int findMin(int node) {
+        while (left(node) != NIL) {
+            Probe.visit();
+            node = left(node);
+        }
+        return node;
+    }
+
+    private int rebalance(int node) {
+        update(node);
+        int balance = height(left(node)) - height(right(node));
+        if (balance > 1) {
+            //Left-Right case is reduced to Left-Left case first
+            int left = left(node);
+            if (height(left(left)) < height(right(left))) {
+                setLeft(node, rotateLeft(left));
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            //Right-Left case is reduced to Right-Right case first
+            int right = right(node);
+            if (height(right(right)) < height(left(right))) {
+                setRight(node, rotateRight(right));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left(node);
+        setLeft(node, right(pivot));
+        setRight(pivot, node);
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right(node);
+        setRight(node, left(pivot));
+        setLeft(pivot, node);
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Recompute the height and subtree sum of the node from its children
+     */
+    private void update(int node) {
+        int left = left(node);
+        int right = right(node);
+        setAugment(node, 1 + Math.max(height(left), height(right)), vt(node) + sum(left) + sum(right));
+    }
+
+    /**
+     * Order by vt first, then by the insertion sequence to keep FIFO among the same vt
+     */
+    private int compare(int a, int b) {
+        Probe.compare();
+        int vtA = vt(a);
+        int vtB = vt(b);
+        if (vtA != vtB) {
+            return vtA < vtB ? -1 : 1;
+        }
+        return Long.compare(seq(a), seq(b));
+    }
+
+    /**
+     * In-order walk with a stack of the pending ancestor ids, which never holds more ids than the height
+     */
+    private class SlotCursor implements ProcessCursor {
+        private final int[] stack;
+        private int depth;
+        private int current;
+
+        SlotCursor(int height) {
+            stack = new int[height];
+            current = NIL;
+        }
+
+        void push(int id) {
+            stack[depth++] = id;
+        }
+
+        void pushLeftSpine(int id) {
+            while (id != NIL) {
+                stack[depth++] = id;
+                id = left(id);
+            }
+        }
+
+        @Override
+        public boolean next() {
+            if (depth == 0) {
+                return false;
+            }
+            Probe.visit();
+            current = stack[--depth];
+            pushLeftSpine(right(current));
+            return true;
+        }
+
+        @Override
+        public String label() {
+            return interner.label(current);
+        }
+
+        @Override
+        public int vt() {
+            return SlotTreeRQ.this.vt(current);
+        }
+    }
+
+} // end of class SlotTreeRQ
@@ -0,0 +1,79 @@
+package scheduler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Unsigned LEB128 varint of a non-negative int, the number encoding of BinaryTrace, RunqueueCheckpoint and
+ * the DurableRunqueue log: 7 bits per byte from the lowest, with the high bit set on every byte but the last.
+ * <p>
+ * The decoder returns -1 instead of throwing, every caller reports a bad number in its own way.
+ */
+final class Varint {
+    /**
+     * Longest encoding of an int
+     */
+    static final int MAX_BYTES = 5;
+
+    private Varint() {
+    }
+
+    /**
+     * Encode the value into the array, which must have MAX_BYTES free from the offset.
+     *
+     * @param array Destination array.
+     * @param offset Index of the first byte of the value.
+     * @param value Non-negative value to encode.
+     *
+     * @return Index after the last byte of the value.
+     */
+    static int put(byte[] array, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            array[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        array[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * @param out Destination stream.
+     * @param value Non-negative value to encode.
+     */
+    static void write(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Decode the value at the position of the buffer, the position moves past it.
+     *
+     * @param buffer Source buffer.
+     *
+     * @return The value, or -1 if the buffer ends before the last byte of the value, or the bytes are longer
+     * than MAX_BYTES or hold more than a non-negative int.
+     */
+    static int get(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_BYTES; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            byte b = buffer.get();
+            //The last byte only has the 3 bits left below the sign bit, and no continuation
+            if (shift == 7 * (MAX_BYTES - 1) && (b & 0xF8) != 0) {
+                return -1;
+            }
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+} // end of class Varint
@@ -0,0 +1,61 @@
+package scheduler;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Test of the varint codec shared by BinaryTrace, RunqueueCheckpoint and the DurableRunqueue log.
+ * This evaluation program requires the JUnit 5.4
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VarintEval {
+
+    @Order(1)
+    @DisplayName("Values around every 7 bit boundary decode to themselves, from the array and the stream encoder")
+    @Test
+    void roundTrip() throws IOException {
+        int[] values = {0, 1, 0x7F, 0x80, 0x3FFF, 0x4000, 0x1FFFFF, 0x200000, 0xFFFFFFF, 0x10000000,
+                Integer.MAX_VALUE};
+        int[] lengths = {1, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5};
+        byte[] array = new byte[values.length * Varint.MAX_BYTES];
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        int offset = 0;
+        for (int i = 0; i < values.length; i++) {
+            int end = Varint.put(array, offset, values[i]);
+            assertEquals(lengths[i], end - offset, "Length of " + values[i]);
+            offset = end;
+            Varint.write(stream, values[i]);
+        }
+        assertArrayEquals(Arrays.copyOf(array, offset), stream.toByteArray());
+        ByteBuffer buffer = ByteBuffer.wrap(array, 0, offset);
+        for (int value : values) {
+            assertEquals(value, Varint.get(buffer));
+        }
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Order(2)
+    @DisplayName("A cut, overlong or negative varint decodes to -1")
+    @Test
+    void malformed() {
+        byte[][] bad = {
+                {},
+                {(byte) 0x80},
+                {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF},
+                //Above Integer.MAX_VALUE, and a continuation on the fifth byte
+                {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x08},
+                {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x00}
+        };
+        for (byte[] bytes : bad) {
+            assertEquals(-1, Varint.get(ByteBuffer.wrap(bytes)), Arrays.toString(bytes));
+        }
+    }
+}
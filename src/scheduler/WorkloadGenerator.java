@@ -0,0 +1,379 @@
+package scheduler;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+
+/**
+ * Reproducible generator of processes and RunqueueTester command files.
+ * <p>
+ * The same seed and settings always give the same trace, so every implementation can be run on identical
+ * input. Labels are unique, "P0", "P1", ... in the order they are generated. The vt follow one of the
+ * distributions:
+ * <pre>
+ *   uniform   vt in [1, maxVt]
+ *   zipf      vt = k in [1, maxVt] with probability proportional to 1 / k^exponent, mostly short runtimes
+ *   monotone  every vt is the previous one plus 0, 1 or 2, like the growing min vruntime of a CPU
+ *   sawtooth  vt rises linearly from 1 to maxVt over a period of processes, then drops back to 1
+ * </pre>
+ * A trace is made of the enqueues of the initial processes followed by operations drawn from the weighted
+ * mix of EN/DE/RP/FP/PT/ST. The generator keeps a model of the queue, so RP, FP, PT and ST pick a label
+ * which is queued at that time, and a DE takes out the same process as the tested queue would.
+ */
+public class WorkloadGenerator {
+    /** Name of class, used in error messages. */
+    protected static final String progName = "WorkloadGenerator";
+
+    public enum Distribution {
+        UNIFORM, ZIPF, MONOTONE, SAWTOOTH
+    }
+
+    /*
+     *   Operation indices of the mix
+     */
+    private static final int EN = 0;
+    private static final int DE = 1;
+    private static final int RP = 2;
+    private static final int FP = 3;
+    private static final int PT = 4;
+    private static final int ST = 5;
+    private static final String[] COMMANDS = {"EN", "DE", "RP", "FP", "PT", "ST"};
+
+    private final Random random;
+    private Distribution distribution;
+    private int maxVt;
+    private double zipfExponent;
+    private int sawtoothPeriod;
+    private final int[] mix;
+
+    /**
+     * Cumulative probabilities of the zipf vt, built on first use
+     */
+    private double[] zipfCdf;
+
+    /**
+     * Number of labels and vt generated so far
+     */
+    private int nextId;
+    private int vtCount;
+    private int lastVt;
+
+    /*
+     *   Model of the queue: the ids of the queued processes in no order, the position of every id in it
+     *   (-1 once dequeued or removed), and a min-heap of (vt, id) where removed ids are skipped lazily.
+     *   The ids grow with the enqueue order, so ties on vt are FIFO like in the queues.
+     */
+    private int[] live;
+    private int liveCount;
+    private int[] livePosition;
+    private long[] heap;
+    private int heapSize;
+
+    /**
+     * Constructs a generator of uniform vt in [1, 100] and a mix of only enqueues
+     *
+     * @param seed Seed of every random choice.
+     */
+    public WorkloadGenerator(long seed) {
+        random = new Random(seed);
+        distribution = Distribution.UNIFORM;
+        maxVt = 100;
+        zipfExponent = 1.0;
+        sawtoothPeriod = 1000;
+        mix = new int[]{1, 0, 0, 0, 0, 0};
+        live = new int[16];
+        livePosition = new int[16];
+        heap = new long[16];
+    } // end of WorkloadGenerator()
+
+
+    public WorkloadGenerator distribution(Distribution distribution) {
+        this.distribution = distribution;
+        return this;
+    }
+
+    /**
+     * @param maxVt Largest vt of the uniform, zipf and sawtooth distributions, at least 1.
+     */
+    public WorkloadGenerator maxVt(int maxVt) {
+        if (maxVt < 1) {
+            throw new IllegalArgumentException("maxVt must be positive.");
+        }
+        this.maxVt = maxVt;
+        zipfCdf = null;
+        return this;
+    }
+
+    public WorkloadGenerator zipfExponent(double zipfExponent) {
+        if (!(zipfExponent > 0)) {
+            throw new IllegalArgumentException("zipf exponent must be positive.");
+        }
+        this.zipfExponent = zipfExponent;
+        zipfCdf = null;
+        return this;
+    }
+
+    /**
+     * @param sawtoothPeriod Number of processes of one tooth, at least 2.
+     */
+    public WorkloadGenerator sawtoothPeriod(int sawtoothPeriod) {
+        if (sawtoothPeriod < 2) {
+            throw new IllegalArgumentException("sawtooth period must be at least 2.");
+        }
+        this.sawtoothPeriod = sawtoothPeriod;
+        return this;
+    }
+
+    /**
+     * Relative weights of the operations after the initial enqueues.
+     */
+    public WorkloadGenerator mix(int en, int de, int rp, int fp, int pt, int st) {
+        int[] weights = {en, de, rp, fp, pt, st};
+        int total = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("operation weights must be non-negative.");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("at least one operation weight must be positive.");
+        }
+        System.arraycopy(weights, 0, mix, 0, mix.length);
+        return this;
+    }
+
+    /**
+     * Mix in the form "EN=40,DE=20,RP=10,FP=10,PT=10,ST=10", the missing operations have weight 0.
+     */
+    public WorkloadGenerator mix(String spec) {
+        int[] weights = new int[COMMANDS.length];
+        for (String entry : spec.split(",")) {
+            String[] pair = entry.trim().split("=");
+            int operation = pair.length == 2 ? Arrays.asList(COMMANDS).indexOf(pair[0].trim().toUpperCase()) : -1;
+            if (operation < 0) {
+                throw new IllegalArgumentException("incorrect operation mix " + spec + ".");
+            }
+            weights[operation] = Integer.parseInt(pair[1].trim());
+        }
+        return mix(weights[EN], weights[DE], weights[RP], weights[FP], weights[PT], weights[ST]);
+    }
+
+
+    /**
+     * @return A label which has never been generated before.
+     */
+    public String nextLabel() {
+        return "P" + nextId++;
+    }
+
+    /**
+     * @return The next vt of the distribution.
+     */
+    public int nextVt() {
+        int i = vtCount++;
+        switch (distribution) {
+            case ZIPF:
+                if (zipfCdf == null) {
+                    zipfCdf = zipfCdf(maxVt, zipfExponent);
+                }
+                int index = Arrays.binarySearch(zipfCdf, random.nextDouble());
+                return (index >= 0 ? index : -index - 1) + 1;
+            case MONOTONE:
+                lastVt = i == 0 ? 0 : (int) Math.min((long) lastVt + random.nextInt(3), Integer.MAX_VALUE);
+                return lastVt;
+            case SAWTOOTH:
+                return 1 + (int) ((long) (i % sawtoothPeriod) * (maxVt - 1) / (sawtoothPeriod - 1));
+            default:
+                return 1 + random.nextInt(maxVt);
+        }
+    }
+
+
+    /**
+     * Write a RunqueueTester command file: size enqueues, then operations drawn from the mix.
+     *
+     * @param size Number of processes enqueued first.
+     * @param operations Number of operations after them.
+     * @param out Where to write the commands, one per line.
+     */
+    public void write(int size, int operations, PrintWriter out) {
+        for (int i = 0; i < size; i++) {
+            enqueue(out);
+        }
+        int total = 0;
+        for (int weight : mix) {
+            total += weight;
+        }
+        for (int i = 0; i < operations; i++) {
+            int pick = random.nextInt(total);
+            int operation = 0;
+            while (pick >= mix[operation]) {
+                pick -= mix[operation];
+                operation++;
+            }
+            switch (operation) {
+                case EN:
+                    enqueue(out);
+                    break;
+                case DE:
+                    dequeue();
+                    out.println("DE");
+                    break;
+                default:
+                    // a queued label, or one never enqueued when the queue is empty
+                    int id = liveCount > 0 ? live[random.nextInt(liveCount)] : nextId;
+                    if (operation == RP && liveCount > 0) {
+                        removeLive(id);
+                    }
+                    out.print(COMMANDS[operation]);
+                    out.print(" P");
+                    out.println(id);
+            }
+        }
+    }
+
+    private void enqueue(PrintWriter out) {
+        int id = nextId;
+        String label = nextLabel();
+        int vt = nextVt();
+        addLive(id, vt);
+        out.print("EN ");
+        out.print(label);
+        out.print(' ');
+        out.println(vt);
+    }
+
+    private void addLive(int id, int vt) {
+        if (liveCount == live.length) {
+            live = Arrays.copyOf(live, live.length << 1);
+        }
+        if (id >= livePosition.length) {
+            livePosition = Arrays.copyOf(livePosition, Math.max(id + 1, livePosition.length << 1));
+        }
+        livePosition[id] = liveCount;
+        live[liveCount++] = id;
+
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length << 1);
+        }
+        //Sift up the (vt, id) key
+        long key = ((long) vt << 32) | id;
+        int i = heapSize++;
+        while (i > 0 && heap[(i - 1) >> 1] > key) {
+            heap[i] = heap[(i - 1) >> 1];
+            i = (i - 1) >> 1;
+        }
+        heap[i] = key;
+    }
+
+    private void removeLive(int id) {
+        int position = livePosition[id];
+        int last = live[--liveCount];
+        live[position] = last;
+        livePosition[last] = position;
+        livePosition[id] = -1;
+    }
+
+    /**
+     * Take the (vt, id) minimum out of the model, skipping the removed processes
+     */
+    private void dequeue() {
+        while (heapSize > 0) {
+            int id = (int) heap[0];
+            //Sift down the last key from the top
+            long key = heap[--heapSize];
+            int i = 0;
+            int child;
+            while ((child = 2 * i + 1) < heapSize) {
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= key) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = key;
+            if (livePosition[id] >= 0) {
+                removeLive(id);
+                return;
+            }
+        }
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0.0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cdf[k - 1] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        cdf[n - 1] = 1.0;
+        return cdf;
+    }
+
+
+    /**
+     * Print help/usage message.
+     */
+    public static void usage(String progName) {
+        System.err.println(progName + ": <filename of output commands> <size> <operations> [seed] [distribution] [mix] [maxVt]");
+        System.err.println("[distribution] = <uniform | zipf | monotone | sawtooth>, uniform by default.");
+        System.err.println("[mix] = weights of the operations after the size initial enqueues, e.g. EN=40,DE=20,RP=10,FP=10,PT=10,ST=10 (the default).");
+        System.exit(1);
+    } // end of usage()
+
+
+    /**
+     * Main method.
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            usage(progName);
+        }
+        WorkloadGenerator generator;
+        int size = 0;
+        int operations = 0;
+        try {
+            size = Integer.parseInt(args[1]);
+            operations = Integer.parseInt(args[2]);
+            if (size < 0 || operations < 0) {
+                throw new IllegalArgumentException("size and operations must be non-negative.");
+            }
+            generator = new WorkloadGenerator(args.length >= 4 ? Long.parseLong(args[3]) : 0L)
+                    .mix(args.length >= 6 ? args[5] : "EN=40,DE=20,RP=10,FP=10,PT=10,ST=10");
+            if (args.length >= 5) {
+                generator.distribution(Distribution.valueOf(args[4].toUpperCase(Locale.ROOT)));
+            }
+            if (args.length >= 7) {
+                generator.maxVt(Integer.parseInt(args[6]));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage(progName);
+            return;
+        }
+
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(args[0]), 1 << 20))) {
+            generator.write(size, operations, out);
+            if (out.checkError()) {
+                System.err.println("Error writing " + args[0] + ".");
+            }
+        } catch (IOException ex) {
+            System.err.println(ex.getMessage());
+        }
+    } // end of main()
+
+} // end of class WorkloadGenerator